@@ -22,7 +22,8 @@ public class AuthEntryPointJwt implements AuthenticationEntryPoint {
     public void commence(HttpServletRequest request, HttpServletResponse response,
                          AuthenticationException authException) throws IOException, ServletException, java.io.IOException {
 
-        log.error("Unauthorized error: {}", authException.getMessage());
+        // Los tokens rechazados ya se cuentan en auth.token.rejected; un 401 no es un error del servidor
+        log.debug("Unauthorized error: {}", authException.getMessage());
 
         response.setContentType(MediaType.APPLICATION_JSON_VALUE);
         response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
@@ -1,6 +1,10 @@
 package com.gomitas.config;
 
+import com.gomitas.security.AuthMetrics;
 import com.gomitas.security.JwtUtils;
+import com.gomitas.security.UserDetailsImpl;
+import com.gomitas.security.UserStateCache;
+import com.gomitas.security.VerifiedJwt;
 import com.gomitas.service.impl.UserDetailsServiceImpl;
 
 import jakarta.servlet.FilterChain;
@@ -9,6 +13,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -17,6 +22,7 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 @Slf4j
 public class AuthTokenFilter extends OncePerRequestFilter {
@@ -27,31 +33,58 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
 
+    @Autowired
+    private UserStateCache userStateCache;
+
+    @Autowired
+    private AuthMetrics authMetrics;
+
+    // Si está activo, el principal se construye desde los claims del token sin consultar la base de datos
+    @Value("${app.jwtStatelessAuth:true}")
+    private boolean statelessAuth;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
+            Optional<VerifiedJwt> token = jwt != null
+                    ? authMetrics.stage("verificacion").record(() -> jwtUtils.verify(jwt))
+                    : Optional.empty();
+            if (token.isPresent()) {
+                String username = token.get().subject();
 
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                UserDetails userDetails = authMetrics.stage("principal").record(() -> loadUserDetails(token.get()));
+                if (userDetails != null) {
+                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                            userDetails, null, userDetails.getAuthorities());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
 
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-
-                log.debug("Usuario autenticado: {}", username);
+                    log.debug("Usuario autenticado: {}", username);
+                } else {
+                    authMetrics.tokenRechazado("revocado");
+                    log.debug("Token revocado o usuario inactivo: {}", username);
+                }
             }
         } catch (Exception e) {
-            log.error("Cannot set user authentication: {}", e.getMessage());
+            // La petición sigue sin autenticar; el 401 lo decide el entry point
+            authMetrics.tokenRechazado("error");
+            log.debug("Cannot set user authentication: {}", e.getMessage());
         }
 
         filterChain.doFilter(request, response);
     }
 
+    private UserDetails loadUserDetails(VerifiedJwt token) {
+        // Los refresh tokens no llevan rol, así que siguen por el camino con consulta
+        if (statelessAuth && token.userId() != null && token.rol() != null) {
+            return userStateCache.isTokenCurrent(token) ? UserDetailsImpl.fromToken(token) : null;
+        }
+        return userDetailsService.loadUserByUsername(token.subject());
+    }
+
     private String parseJwt(HttpServletRequest request) {
         String headerAuth = request.getHeader("Authorization");
 
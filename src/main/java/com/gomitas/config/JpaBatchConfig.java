@@ -0,0 +1,74 @@
+package com.gomitas.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Map;
+
+/**
+ * Inserciones y actualizaciones en lote de Hibernate.
+ *
+ * Las tablas de mucho volumen usan secuencias con asignación de 50 ids (optimizador pooled)
+ * en lugar de IDENTITY, que obliga a un INSERT por fila para conocer el id. Con eso Hibernate
+ * agrupa los INSERT/UPDATE del flush en batches, ordenados por entidad.
+ */
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+public class JpaBatchConfig {
+
+    private static final int ALLOCATION_SIZE = 50;
+
+    // Secuencia -> tabla e id que numera
+    private static final Map<String, String[]> SECUENCIAS = Map.of(
+            "ventas_historicas_seq", new String[]{"ventas_historicas", "id"},
+            "detalle_pedido_seq", new String[]{"detalle_pedido", "detalle_id"},
+            "detalle_produccion_seq", new String[]{"detalle_produccion", "detalle_id"},
+            "movimiento_inventario_seq", new String[]{"movimiento_inventario", "movimiento_id"},
+            "alerta_sistema_seq", new String[]{"alerta_sistema", "alerta_id"},
+            "clasificacion_abc_seq", new String[]{"clasificacion_abc", "id"},
+            "producto_insumo_seq", new String[]{"producto_insumo", "id"}
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.jpa.batchSize:50}")
+    private int batchSize;
+
+    @Bean
+    public HibernatePropertiesCustomizer batchHibernatePropertiesCustomizer() {
+        return properties -> {
+            properties.putIfAbsent(AvailableSettings.STATEMENT_BATCH_SIZE, batchSize);
+            properties.putIfAbsent(AvailableSettings.ORDER_INSERTS, true);
+            properties.putIfAbsent(AvailableSettings.ORDER_UPDATES, true);
+            properties.putIfAbsent(AvailableSettings.BATCH_VERSIONED_DATA, true);
+        };
+    }
+
+    /**
+     * Las tablas que antes usaban IDENTITY ya tienen filas: cada secuencia se adelanta por encima
+     * del id máximo antes de que la aplicación empiece a insertar. setval solo avanza la secuencia.
+     */
+    @Bean
+    public SmartInitializingSingleton sincronizarSecuencias() {
+        return () -> SECUENCIAS.forEach((secuencia, tabla) -> {
+            try {
+                jdbcTemplate.queryForObject(
+                        "SELECT setval('" + secuencia + "', GREATEST(" +
+                                "(SELECT COALESCE(MAX(" + tabla[1] + "), 0) FROM " + tabla[0] + ") + " + ALLOCATION_SIZE + ", " +
+                                "(SELECT last_value FROM " + secuencia + ")))",
+                        Long.class);
+            } catch (DataAccessException e) {
+                log.warn("No se pudo sincronizar la secuencia {} con la tabla {}: {}", secuencia, tabla[0], e.getMessage());
+            }
+        });
+    }
+}
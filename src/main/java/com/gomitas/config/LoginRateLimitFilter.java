@@ -0,0 +1,244 @@
+package com.gomitas.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gomitas.security.StripedRateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limita los intentos de login y registro por IP y por nombre de usuario
+ * antes de que la petición llegue al AuthenticationManager (y a BCrypt).
+ */
+@Slf4j
+public class LoginRateLimitFilter extends OncePerRequestFilter {
+
+    private static final Set<String> RUTAS_LIMITADAS = Set.of("/api/auth/login", "/api/auth/register");
+    private static final int MAX_BODY_BYTES = 8 * 1024;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.loginRateLimit.ipPerMinute:30}")
+    private int ipPerMinute;
+
+    @Value("${app.loginRateLimit.ipBurst:10}")
+    private int ipBurst;
+
+    @Value("${app.loginRateLimit.usernamePerMinute:5}")
+    private int usernamePerMinute;
+
+    @Value("${app.loginRateLimit.usernameBurst:5}")
+    private int usernameBurst;
+
+    @Value("${app.loginRateLimit.maxEntries:100000}")
+    private int maxEntries;
+
+    @Value("${app.loginRateLimit.trustForwardedFor:false}")
+    private boolean trustForwardedFor;
+
+    // Proxies propios delante de la aplicación; cada uno agrega una entrada al final de X-Forwarded-For
+    @Value("${app.loginRateLimit.trustedProxies:1}")
+    private int trustedProxies;
+
+    private StripedRateLimiter ipLimiter;
+    private StripedRateLimiter usernameLimiter;
+
+    @PostConstruct
+    void init() {
+        int stripes = Math.max(4, Runtime.getRuntime().availableProcessors() * 4);
+        this.ipLimiter = new StripedRateLimiter(ipPerMinute, ipBurst, maxEntries, stripes);
+        this.usernameLimiter = new StripedRateLimiter(usernamePerMinute, usernameBurst, maxEntries, stripes);
+        meterRegistry.gauge("auth.ratelimit.entries", this, f -> f.ipLimiter.size() + f.usernameLimiter.size());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equalsIgnoreCase(request.getMethod()) || !RUTAS_LIMITADAS.contains(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String ruta = request.getServletPath();
+
+        long esperaIp = ipLimiter.tryAcquire(clientIp(request));
+        if (esperaIp > 0) {
+            rechazar(request, response, "ip", ruta, esperaIp);
+            return;
+        }
+
+        // Un cuerpo de login o registro nunca llega a 8 KB: no se trunca, se rechaza
+        if (request.getContentLengthLong() > MAX_BODY_BYTES) {
+            rechazarCuerpoGrande(request, response, ruta);
+            return;
+        }
+        byte[] body = request.getInputStream().readNBytes(MAX_BODY_BYTES + 1);
+        if (body.length > MAX_BODY_BYTES) {
+            rechazarCuerpoGrande(request, response, ruta);
+            return;
+        }
+
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request, body);
+        String nombreUsuario = extraerNombreUsuario(cachedRequest.body);
+        if (nombreUsuario != null) {
+            long esperaUsuario = usernameLimiter.tryAcquire(nombreUsuario.toLowerCase());
+            if (esperaUsuario > 0) {
+                rechazar(request, response, "usuario", ruta, esperaUsuario);
+                return;
+            }
+        }
+
+        filterChain.doFilter(cachedRequest, response);
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void evictIdleBuckets() {
+        ipLimiter.evictIdle();
+        usernameLimiter.evictIdle();
+    }
+
+    private void rechazar(HttpServletRequest request, HttpServletResponse response,
+                          String clave, String ruta, long esperaNanos) throws IOException {
+        meterRegistry.counter("auth.ratelimit.rejected", "clave", clave, "ruta", ruta).increment();
+        log.debug("Intento rechazado por límite de {} en {}", clave, ruta);
+
+        long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(esperaNanos) + 1);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        responder(request, response, 429, "Too Many Requests", "Demasiados intentos, intente nuevamente más tarde");
+    }
+
+    private void rechazarCuerpoGrande(HttpServletRequest request, HttpServletResponse response, String ruta) throws IOException {
+        log.debug("Cuerpo de más de {} bytes rechazado en {}", MAX_BODY_BYTES, ruta);
+        responder(request, response, HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, "Payload Too Large",
+                "El cuerpo de la petición supera el máximo de " + MAX_BODY_BYTES + " bytes");
+    }
+
+    private void responder(HttpServletRequest request, HttpServletResponse response,
+                           int status, String error, String mensaje) throws IOException {
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+
+        final Map<String, Object> body = new HashMap<>();
+        body.put("status", status);
+        body.put("error", error);
+        body.put("message", mensaje);
+        body.put("path", request.getServletPath());
+        body.put("timestamp", System.currentTimeMillis());
+
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+
+    /**
+     * Las entradas de la izquierda de X-Forwarded-For las escribe el cliente y puede cambiarlas en
+     * cada intento; se toma la que agregó el primero de nuestros proxies, contando desde la derecha
+     */
+    private String clientIp(HttpServletRequest request) {
+        if (trustForwardedFor) {
+            String forwarded = request.getHeader("X-Forwarded-For");
+            if (StringUtils.hasText(forwarded)) {
+                String[] saltos = forwarded.split(",");
+                return saltos[Math.max(0, saltos.length - trustedProxies)].trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private String extraerNombreUsuario(byte[] body) {
+        if (body.length == 0) {
+            return null;
+        }
+        try {
+            JsonNode nombre = objectMapper.readTree(body).get("nombreUsuario");
+            return nombre != null && nombre.isTextual() ? nombre.asText() : null;
+        } catch (IOException e) {
+            // El cuerpo inválido lo rechazará la validación del controlador
+            return null;
+        }
+    }
+
+    /**
+     * Guarda el cuerpo (pequeño) de la petición para poder leerlo aquí y otra vez en el controlador
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // El cuerpo ya está en memoria: todo está disponible de inmediato
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -11,6 +11,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
@@ -61,6 +62,20 @@ public class AuthController {
         }
     }
 
+    @Operation(summary = "Importar clientes (admin)",
+            description = "Registra clientes en lote para migrar listas existentes. Requiere rol de Administrador.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Importación procesada; incluye los errores por fila"),
+            @ApiResponse(responseCode = "400", description = "Datos de entrada inválidos"),
+            @ApiResponse(responseCode = "403", description = "Acceso denegado")
+    })
+    @PostMapping("/register/bulk")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<AuthDtos.BulkRegisterResponseDto> registerBulk(@Valid @RequestBody AuthDtos.BulkRegisterRequestDto request) {
+        log.info("Importación masiva de {} clientes", request.usuarios().size());
+        return ResponseEntity.ok(authService.registerBulk(request));
+    }
+
     @Operation(summary = "Obtener información del usuario actual",
             description = "Devuelve la información del usuario autenticado")
     @ApiResponses(value = {
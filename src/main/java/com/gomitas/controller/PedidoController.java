@@ -1,6 +1,8 @@
 package com.gomitas.controller;
 
 import com.gomitas.dto.PedidoDtos;
+import com.gomitas.exception.ResourceNotFoundException;
+import com.gomitas.service.PedidoImportacionService;
 import com.gomitas.service.PedidoService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -9,12 +11,16 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -25,6 +31,7 @@ import java.util.List;
 public class PedidoController {
 
     private final PedidoService pedidoService;
+    private final PedidoImportacionService pedidoImportacionService;
 
     @Operation(summary = "Crear un nuevo pedido", description = "Crea un nuevo pedido para el cliente autenticado.")
     @ApiResponses(value = {
@@ -38,25 +45,36 @@ public class PedidoController {
         return new ResponseEntity<>(nuevoPedido, HttpStatus.CREATED);
     }
 
-    @Operation(summary = "Listar todos los pedidos (admin)", description = "Devuelve una lista de todos los pedidos en el sistema. Requiere rol de Administrador.")
+    @Operation(summary = "Listar todos los pedidos (admin)", description = "Devuelve los pedidos del sistema por páginas, del más reciente al más antiguo, filtrables por estado, cliente y rango de fechas. Para la página siguiente se envía el 'siguienteCursor' recibido. Requiere rol de Administrador.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Lista de pedidos obtenida"),
             @ApiResponse(responseCode = "403", description = "Acceso denegado")
     })
     @GetMapping
     @PreAuthorize("hasRole('ADMINISTRADOR')")
-    public ResponseEntity<List<PedidoDtos.PedidoResponseDto>> getAllPedidos() {
-        return ResponseEntity.ok(pedidoService.findAll());
+    public ResponseEntity<PedidoDtos.PaginaPedidosDto> getAllPedidos(@Valid @ParameterObject PedidoDtos.ConsultaPedidosDto consulta) {
+        return ResponseEntity.ok(pedidoService.findAll(consulta));
     }
 
-    @Operation(summary = "Listar mis pedidos", description = "Devuelve una lista de todos los pedidos realizados por el cliente autenticado.")
+    @Operation(summary = "Listar mis pedidos", description = "Devuelve por páginas los pedidos realizados por el cliente autenticado, filtrables por estado y rango de fechas.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Lista de mis pedidos obtenida")
     })
     @GetMapping("/me")
     @PreAuthorize("hasRole('CLIENTE')")
-    public ResponseEntity<List<PedidoDtos.PedidoResponseDto>> getCurrentUserPedidos(Authentication authentication) {
-        return ResponseEntity.ok(pedidoService.findByCurrentUser(authentication));
+    public ResponseEntity<PedidoDtos.PaginaPedidosDto> getCurrentUserPedidos(Authentication authentication, @Valid @ParameterObject PedidoDtos.ConsultaPedidosDto consulta) {
+        return ResponseEntity.ok(pedidoService.findByCurrentUser(authentication, consulta));
+    }
+
+    @Operation(summary = "Contar pedidos por estado (admin)", description = "Devuelve la cantidad de pedidos en cada estado. Requiere rol de Administrador.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Conteo de pedidos por estado"),
+            @ApiResponse(responseCode = "403", description = "Acceso denegado")
+    })
+    @GetMapping("/estados")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<List<PedidoDtos.ConteoEstadoDto>> getConteoPorEstado() {
+        return ResponseEntity.ok(pedidoService.contarPorEstado());
     }
 
     @Operation(summary = "Obtener detalle de un pedido", description = "Devuelve la información de un pedido específico. Accesible por el dueño del pedido o un administrador.")
@@ -86,20 +104,20 @@ public class PedidoController {
         try {
             PedidoDtos.PedidoResponseDto updatedPedido = pedidoService.updatePedidoStatus(id, statusDto.estado());
             return ResponseEntity.ok(updatedPedido);
-        } catch (RuntimeException e) {
+        } catch (ResourceNotFoundException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
-    @Operation(summary = "Listar pedidos de un cliente específico (admin)", description = "Devuelve todos los pedidos de un cliente por su ID. Requiere rol de Administrador.")
+    @Operation(summary = "Listar pedidos de un cliente específico (admin)", description = "Devuelve por páginas los pedidos de un cliente por su ID, filtrables por estado y rango de fechas. Requiere rol de Administrador.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Pedidos del cliente obtenidos"),
             @ApiResponse(responseCode = "403", description = "Acceso denegado")
     })
     @GetMapping("/cliente/{clienteId}")
     @PreAuthorize("hasRole('ADMINISTRADOR')")
-    public ResponseEntity<List<PedidoDtos.PedidoResponseDto>> getPedidosByClienteId(@PathVariable Long clienteId) {
-        return ResponseEntity.ok(pedidoService.findByClienteId(clienteId));
+    public ResponseEntity<PedidoDtos.PaginaPedidosDto> getPedidosByClienteId(@PathVariable Long clienteId, @Valid @ParameterObject PedidoDtos.ConsultaPedidosDto consulta) {
+        return ResponseEntity.ok(pedidoService.findByClienteId(clienteId, consulta));
     }
 
     @Operation(summary = "Despachar un pedido (admin)", description = "Cambia el estado de un pedido a 'Despachado' y descuenta los productos del inventario. Requiere rol de Administrador.")
@@ -114,4 +132,28 @@ public class PedidoController {
     public ResponseEntity<PedidoDtos.PedidoResponseDto> despacharPedido(@PathVariable Long id) {
         return ResponseEntity.ok(pedidoService.despacharPedido(id));
     }
+
+    @Operation(summary = "Despachar varios pedidos (admin)", description = "Despacha una ola de pedidos en una transacción: descuenta el stock una vez por producto y devuelve el resultado de cada pedido. Requiere rol de Administrador.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Resultado del despacho por pedido"),
+            @ApiResponse(responseCode = "400", description = "Datos de entrada inválidos"),
+            @ApiResponse(responseCode = "403", description = "Acceso denegado")
+    })
+    @PostMapping("/despachar")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<PedidoDtos.DespachoMasivoResponseDto> despacharPedidos(@Valid @RequestBody PedidoDtos.DespachoMasivoRequestDto request) {
+        return ResponseEntity.ok(pedidoService.despacharPedidos(request.pedidoIds()));
+    }
+
+    @Operation(summary = "Importar pedidos desde CSV (admin)", description = "Crea pedidos mayoristas a partir de un CSV con columnas cliente_id, producto_id, cantidad y opcionalmente referencia, metodo_pago y observaciones. Las líneas consecutivas con el mismo cliente y referencia forman un pedido; un pedido con alguna línea inválida se rechaza completo. Requiere rol de Administrador.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Resumen de la importación con los errores por línea"),
+            @ApiResponse(responseCode = "400", description = "Archivo vacío o sin las columnas requeridas"),
+            @ApiResponse(responseCode = "403", description = "Acceso denegado")
+    })
+    @PostMapping(value = "/importar", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<PedidoDtos.ImportacionPedidosResponseDto> importarPedidos(@RequestPart("archivo") MultipartFile archivo) throws IOException {
+        return ResponseEntity.ok(pedidoImportacionService.importarCsv(archivo));
+    }
 }
@@ -9,6 +9,9 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -18,6 +21,7 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/productos")
@@ -27,16 +31,38 @@ public class ProductoController {
 
     private final ProductoService productoService;
 
-    @Operation(summary = "Catálogo de productos activos", description = "Devuelve una lista de todos los productos con estado activo.")
+    @Value("${app.tienda.ttlMs:5000}")
+    private long tiendaTtlMs;
+
+    @Operation(summary = "Catálogo de productos activos", description = "Devuelve una página de productos activos. Permite buscar por texto en nombre y descripción (sin distinguir tildes, por prefijo de palabra), filtrar por rango de precio y ordenar por NOMBRE, PRECIO_ASC, PRECIO_DESC o NUEVOS. Para la página siguiente se envía el cursor recibido. La respuesta lleva un ETag con la versión del catálogo; con If-None-Match de la misma versión se responde 304 sin cuerpo.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Catálogo obtenido exitosamente")
+            @ApiResponse(responseCode = "200", description = "Catálogo obtenido exitosamente"),
+            @ApiResponse(responseCode = "304", description = "El catálogo no cambió desde la versión indicada"),
+            @ApiResponse(responseCode = "400", description = "Filtros, orden o cursor inválidos")
     })
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMINISTRADOR','CLIENTE')")
-    public ResponseEntity<List<ProductoDtos.ProductoResponseDto>> getActiveProductos() {
-        return ResponseEntity.ok(productoService.findAllActive());
+    public ResponseEntity<ProductoDtos.PaginaProductosDto> getActiveProductos(@Valid @ParameterObject ProductoDtos.ConsultaProductosDto consulta) {
+        // Con el ETag en la respuesta, Spring contesta 304 si coincide con If-None-Match
+        ProductoDtos.CatalogoActivoDto catalogo = productoService.buscarCatalogo(consulta);
+        return ResponseEntity.ok()
+                .eTag("\"" + catalogo.version() + "\"")
+                .cacheControl(CacheControl.noCache())
+                .body(catalogo.pagina());
     }
-    
+
+    @Operation(summary = "Productos de la tienda con disponibilidad", description = "Devuelve los productos activos con su disponibilidad para prometer (stock disponible menos reservado) y si están por debajo del stock mínimo, en una sola consulta. La respuesta se puede guardar por unos segundos.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Productos de la tienda obtenidos exitosamente")
+    })
+    @GetMapping("/tienda")
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR','CLIENTE')")
+    public ResponseEntity<List<ProductoDtos.ProductoTiendaDto>> getTienda() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(tiendaTtlMs, TimeUnit.MILLISECONDS).cachePrivate())
+                .body(productoService.findTienda());
+    }
+
     @Operation(summary = "Listar todos los productos (admin)", description = "Devuelve una lista de todos los productos, incluyendo activos e inactivos. Requiere rol de Administrador.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Lista completa de productos obtenida"),
@@ -1,13 +1,16 @@
 package com.gomitas.dto;
 
 import com.gomitas.enums.Rol;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Size;
 import lombok.Builder;
 import lombok.Data;
 
 import java.time.LocalDate;
+import java.util.List;
 
 public class AuthDtos {
 
@@ -74,4 +77,16 @@ public class AuthDtos {
             @NotBlank(message = "El refresh token es requerido")
             String refreshToken
     ) {}
+
+    public record BulkRegisterRequestDto(
+            @NotEmpty(message = "La lista de usuarios no puede estar vacía")
+            @Valid
+            List<RegisterRequestDto> usuarios
+    ) {}
+
+    public record BulkRegisterResponseDto(
+            int totalRecibidos,
+            int registrados,
+            List<String> errores
+    ) {}
 }
@@ -0,0 +1,28 @@
+package com.gomitas.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Contenido (payload JSON) de los eventos de pedido del outbox
+ */
+public class EventoPedidoDtos {
+
+    public record FaltanteStock(
+            Long productoId,
+            String nombreProducto,
+            int cantidadFaltante
+    ) {}
+
+    public record PedidoCreado(
+            List<FaltanteStock> faltantes
+    ) {}
+
+    public record PedidoDespachado(
+            List<Long> productoIds
+    ) {}
+
+    public record PedidoEntregado(
+            LocalDate fechaVenta
+    ) {}
+}
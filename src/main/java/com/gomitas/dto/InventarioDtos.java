@@ -11,6 +11,8 @@ public class InventarioDtos {
             Long productoId,
             String nombreProducto,
             Integer cantidadDisponible,
+            Integer cantidadReservada,
+            Integer disponibleParaPrometer,
             LocalDateTime fechaActualizacion
     ) {}
 
@@ -1,10 +1,12 @@
 package com.gomitas.dto;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import lombok.Builder;
+import org.springframework.format.annotation.DateTimeFormat;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -60,4 +62,70 @@ public class PedidoDtos {
             @NotEmpty(message = "El estado no puede estar vacío.")
             String estado
     ) {}
+
+    @Builder
+    public record DespachoMasivoRequestDto(
+            @NotEmpty(message = "La lista de pedidos no puede estar vacía.")
+            List<@NotNull Long> pedidoIds
+    ) {}
+
+    @Builder
+    public record ResultadoDespachoDto(
+            Long pedidoId,
+            boolean despachado,
+            String error
+    ) {}
+
+    @Builder
+    public record DespachoMasivoResponseDto(
+            int totalRecibidos,
+            int despachados,
+            List<ResultadoDespachoDto> resultados
+    ) {}
+
+    @Builder
+    public record ConsultaPedidosDto(
+            String estado,
+            Long clienteId,
+
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            LocalDate desde,
+
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            LocalDate hasta,
+
+            String cursor,
+
+            @Positive(message = "El límite debe ser mayor que cero.")
+            @Max(value = 200, message = "El límite no puede ser mayor que 200.")
+            Integer limite
+    ) {}
+
+    @Builder
+    public record PaginaPedidosDto(
+            List<PedidoResponseDto> pedidos,
+            String siguienteCursor
+    ) {}
+
+    @Builder
+    public record ConteoEstadoDto(
+            String estado,
+            long cantidad
+    ) {}
+
+    @Builder
+    public record ErrorImportacionDto(
+            long linea,
+            String mensaje
+    ) {}
+
+    @Builder
+    public record ImportacionPedidosResponseDto(
+            long lineasLeidas,
+            long lineasImportadas,
+            int pedidosCreados,
+            int pedidosRechazados,
+            long totalErrores,
+            List<ErrorImportacionDto> errores
+    ) {}
 }
@@ -1,8 +1,10 @@
 package com.gomitas.dto;
 
 import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.Size;
 import jakarta.validation.Valid;
 import lombok.Builder;
@@ -23,7 +25,53 @@ public class ProductoDtos {
             String imageUrl,
             Integer stockMinimo,
             LocalDate fechaCreacion,
-            Boolean estado
+            Boolean estado,
+            String estadoImagen
+    ) {}
+
+    // Producto de la tienda con su disponibilidad para prometer (disponible menos reservado)
+    @Builder
+    public record ProductoTiendaDto(
+            Long productoId,
+            String nombre,
+            String descripcion,
+            BigDecimal precioUnitario,
+            String imageUrl,
+            int disponible,
+            boolean stockBajo
+    ) {}
+
+    @Builder
+    public record ConsultaProductosDto(
+            String q,
+
+            @DecimalMin(value = "0.0", message = "El precio mínimo no puede ser negativo.")
+            BigDecimal precioMin,
+
+            @DecimalMin(value = "0.0", message = "El precio máximo no puede ser negativo.")
+            BigDecimal precioMax,
+
+            String orden,
+
+            String cursor,
+
+            @Positive(message = "El límite debe ser mayor que cero.")
+            @Max(value = 200, message = "El límite no puede ser mayor que 200.")
+            Integer limite
+    ) {}
+
+    @Builder
+    public record PaginaProductosDto(
+            List<ProductoResponseDto> productos,
+            int total,
+            String siguienteCursor
+    ) {}
+
+    // Página del catálogo junto con la versión del catálogo que la produjo (ETag)
+    @Builder
+    public record CatalogoActivoDto(
+            String version,
+            PaginaProductosDto pagina
     ) {}
 
     @Builder
@@ -22,7 +22,8 @@ import java.time.LocalDateTime;
 public class Alerta {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "alerta_sistema_seq")
+    @SequenceGenerator(name = "alerta_sistema_seq", sequenceName = "alerta_sistema_seq", allocationSize = 50)
     @Column(name = "alerta_id")
     private Long alertaId;
 
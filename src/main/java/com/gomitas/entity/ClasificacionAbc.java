@@ -22,7 +22,8 @@ import java.time.LocalDateTime;
 public class ClasificacionAbc {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "clasificacion_abc_seq")
+    @SequenceGenerator(name = "clasificacion_abc_seq", sequenceName = "clasificacion_abc_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -13,11 +13,14 @@ import java.math.BigDecimal;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "detalle_pedido")
+@Table(name = "detalle_pedido", indexes = {
+        @Index(name = "idx_detalle_pedido_pedido", columnList = "pedido_id")
+})
 public class DetallePedido {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "detalle_pedido_seq")
+    @SequenceGenerator(name = "detalle_pedido_seq", sequenceName = "detalle_pedido_seq", allocationSize = 50)
     @Column(name = "detalle_id")
     private Long detalleId;
 
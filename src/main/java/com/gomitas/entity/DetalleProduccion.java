@@ -17,7 +17,8 @@ import java.math.BigDecimal;
 public class DetalleProduccion {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "detalle_produccion_seq")
+    @SequenceGenerator(name = "detalle_produccion_seq", sequenceName = "detalle_produccion_seq", allocationSize = 50)
     @Column(name = "detalle_id")
     private Long detalleId;
 
@@ -0,0 +1,42 @@
+package com.gomitas.entity;
+
+import com.gomitas.enums.EstadoPedido;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Guarda EstadoPedido por su etiqueta para mantener compatibles las filas existentes de pedido.estado.
+ * Antes el estado era texto libre: una etiqueta desconocida se lee como Pendiente (y se avisa una
+ * vez por valor) en lugar de romper cada consulta que toca la fila.
+ */
+@Slf4j
+@Converter
+public class EstadoPedidoConverter implements AttributeConverter<EstadoPedido, String> {
+
+    private static final EstadoPedido ESTADO_DESCONOCIDO = EstadoPedido.PENDIENTE;
+
+    private static final Set<String> desconocidosAvisados = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public String convertToDatabaseColumn(EstadoPedido estado) {
+        return estado != null ? estado.getEtiqueta() : null;
+    }
+
+    @Override
+    public EstadoPedido convertToEntityAttribute(String valor) {
+        if (valor == null) {
+            return null;
+        }
+        return EstadoPedido.desde(valor).orElseGet(() -> {
+            if (desconocidosAvisados.add(valor)) {
+                log.warn("Estado de pedido desconocido en la base de datos: '{}', se lee como '{}'",
+                        valor, ESTADO_DESCONOCIDO.getEtiqueta());
+            }
+            return ESTADO_DESCONOCIDO;
+        });
+    }
+}
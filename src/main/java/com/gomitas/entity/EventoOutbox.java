@@ -0,0 +1,63 @@
+package com.gomitas.entity;
+
+import com.gomitas.enums.TipoEventoPedido;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento de dominio escrito en la misma transacción que el cambio que lo origina.
+ * Un evento está pendiente mientras procesado = false y siguiente_intento no sea null;
+ * si agota los reintentos queda con siguiente_intento = null para revisión manual.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "evento_outbox", indexes = {
+        @Index(name = "idx_evento_outbox_pendientes", columnList = "procesado, siguiente_intento, evento_id")
+})
+public class EventoOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "evento_id")
+    private Long eventoId;
+
+    @JdbcTypeCode(SqlTypes.NAMED_ENUM)
+    @Column(name = "tipo", nullable = false)
+    private TipoEventoPedido tipo;
+
+    @Column(name = "pedido_id", nullable = false)
+    private Long pedidoId;
+
+    @Column(name = "payload", nullable = false, columnDefinition = "text")
+    private String payload;
+
+    @Column(name = "fecha_creacion", nullable = false)
+    private LocalDateTime fechaCreacion;
+
+    @Builder.Default
+    @Column(name = "procesado", nullable = false, columnDefinition = "boolean default false")
+    private boolean procesado = false;
+
+    @Column(name = "fecha_procesado")
+    private LocalDateTime fechaProcesado;
+
+    @Builder.Default
+    @Column(name = "intentos", nullable = false, columnDefinition = "integer default 0")
+    private int intentos = 0;
+
+    @Column(name = "siguiente_intento")
+    private LocalDateTime siguienteIntento;
+
+    @Column(name = "ultimo_error", columnDefinition = "text")
+    private String ultimoError;
+}
@@ -29,7 +29,16 @@ public class InventarioProducto {
     @Column(name = "cantidad_disponible", nullable = false)
     private Integer cantidadDisponible = 0;
 
+    // Unidades apartadas por pedidos aún no despachados; disponible para prometer = disponible - reservada
+    @Builder.Default
+    @Column(name = "cantidad_reservada", nullable = false, columnDefinition = "integer default 0")
+    private Integer cantidadReservada = 0;
+
     @UpdateTimestamp
     @Column(name = "fecha_actualizacion")
     private LocalDateTime fechaActualizacion;
+
+    public int getDisponibleParaPrometer() {
+        return cantidadDisponible - cantidadReservada;
+    }
 }
@@ -17,11 +17,14 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "movimiento_inventario")
+@Table(name = "movimiento_inventario", indexes = {
+        @Index(name = "idx_movimiento_inventario_aplicado", columnList = "aplicado, movimiento_id")
+})
 public class MovimientoInventario {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "movimiento_inventario_seq")
+    @SequenceGenerator(name = "movimiento_inventario_seq", sequenceName = "movimiento_inventario_seq", allocationSize = 50)
     @Column(name = "movimiento_id")
     private Long movimientoId;
 
@@ -51,4 +54,20 @@ public class MovimientoInventario {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "usuario_id")
     private Usuario usuario;
+
+    // false mientras el saldo de inventario_producto aún no refleja el movimiento (productos "hot")
+    @Builder.Default
+    @Column(nullable = false, columnDefinition = "boolean default true")
+    private boolean aplicado = true;
+
+    /**
+     * Variación de la cantidad disponible que produce el movimiento
+     */
+    public int getDelta() {
+        return switch (tipoMovimiento) {
+            case ENTRADA -> cantidad;
+            case SALIDA -> -cantidad;
+            case AJUSTE -> cantidadNueva - cantidadAnterior;
+        };
+    }
 }
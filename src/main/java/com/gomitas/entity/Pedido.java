@@ -1,5 +1,6 @@
 package com.gomitas.entity;
 
+import com.gomitas.enums.EstadoPedido;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -18,7 +19,11 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "pedido")
+@Table(name = "pedido", indexes = {
+        @Index(name = "idx_pedido_fecha", columnList = "fecha_pedido, pedido_id"),
+        @Index(name = "idx_pedido_estado_fecha", columnList = "estado, fecha_pedido, pedido_id"),
+        @Index(name = "idx_pedido_cliente_fecha", columnList = "cliente_id, fecha_pedido, pedido_id")
+})
 public class Pedido {
 
     @Id
@@ -34,8 +39,9 @@ public class Pedido {
     @Column(name = "fecha_pedido", updatable = false)
     private LocalDate fechaPedido;
 
+    @Convert(converter = EstadoPedidoConverter.class)
     @Column(nullable = false)
-    private String estado;
+    private EstadoPedido estado;
 
     @Column(name = "metodo_pago")
     private String metodoPago;
@@ -1,11 +1,14 @@
 package com.gomitas.entity;
 
+import com.gomitas.enums.EstadoImagen;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -34,6 +37,15 @@ public class Producto {
     @Column(name = "image_url")
     private String imageUrl;
 
+    // Estado de la última imagen enviada; la subida ocurre después del commit (ver ImagenProductoPipeline)
+    @JdbcTypeCode(SqlTypes.NAMED_ENUM)
+    @Column(name = "estado_imagen")
+    private EstadoImagen estadoImagen;
+
+    // Ruta local de la imagen preparada que aún no se sube
+    @Column(name = "imagen_pendiente")
+    private String imagenPendiente;
+
     @Column(name = "stock_minimo", columnDefinition = "integer default 0")
     private Integer stockMinimo;
 
@@ -19,7 +19,8 @@ import java.math.BigDecimal;
 public class ProductoInsumo {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "producto_insumo_seq")
+    @SequenceGenerator(name = "producto_insumo_seq", sequenceName = "producto_insumo_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
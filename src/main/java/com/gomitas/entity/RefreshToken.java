@@ -0,0 +1,46 @@
+package com.gomitas.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "refresh_token", indexes = {
+        @Index(name = "idx_refresh_token_familia", columnList = "familia"),
+        @Index(name = "idx_refresh_token_revocado_expiracion", columnList = "revocado, fecha_expiracion")
+})
+public class RefreshToken {
+
+    @Id
+    @Column(name = "jti", length = 36)
+    private String jti;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "usuario_id", nullable = false)
+    private Usuario usuario;
+
+    // Todos los tokens obtenidos por rotación desde un mismo login comparten familia
+    @Column(name = "familia", nullable = false, length = 36)
+    private String familia;
+
+    @Column(name = "fecha_emision", nullable = false)
+    private LocalDateTime fechaEmision;
+
+    @Column(name = "fecha_expiracion", nullable = false)
+    private LocalDateTime fechaExpiracion;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private boolean revocado = false;
+
+    @Column(name = "reemplazado_por", length = 36)
+    private String reemplazadoPor;
+}
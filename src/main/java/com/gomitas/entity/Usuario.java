@@ -53,4 +53,9 @@ public class Usuario {
     @Builder.Default
     @Column(name = "estado")
     private Boolean estado = true;
+
+    // Se incrementa cuando cambian rol, estado o contraseña para invalidar los tokens emitidos
+    @Builder.Default
+    @Column(name = "token_version", nullable = false, columnDefinition = "integer default 0")
+    private Integer tokenVersion = 0;
 }
@@ -18,7 +18,8 @@ import java.time.LocalDate;
 public class VentasHistoricas {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ventas_historicas_seq")
+    @SequenceGenerator(name = "ventas_historicas_seq", sequenceName = "ventas_historicas_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
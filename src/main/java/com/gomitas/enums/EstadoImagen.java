@@ -0,0 +1,10 @@
+package com.gomitas.enums;
+
+/**
+ * Estado de la imagen de un producto mientras se sube en segundo plano
+ */
+public enum EstadoImagen {
+    PENDIENTE,
+    LISTA,
+    FALLIDA
+}
@@ -0,0 +1,63 @@
+package com.gomitas.enums;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Estados de un pedido. En la columna se guarda la etiqueta, que es el texto que ya usaban
+ * los pedidos existentes ("Pendiente", "Pendiente por Stock", ...).
+ */
+public enum EstadoPedido {
+    PENDIENTE("Pendiente"),
+    PENDIENTE_POR_STOCK("Pendiente por Stock"),
+    DESPACHADO("Despachado"),
+    ENTREGADO("Entregado"),
+    CANCELADO("Cancelado");
+
+    private final String etiqueta;
+
+    EstadoPedido(String etiqueta) {
+        this.etiqueta = etiqueta;
+    }
+
+    public String getEtiqueta() {
+        return etiqueta;
+    }
+
+    public boolean puedeCambiarA(EstadoPedido destino) {
+        return switch (this) {
+            case PENDIENTE -> Set.of(PENDIENTE_POR_STOCK, DESPACHADO, CANCELADO).contains(destino);
+            case PENDIENTE_POR_STOCK -> Set.of(PENDIENTE, DESPACHADO, CANCELADO).contains(destino);
+            case DESPACHADO -> destino == ENTREGADO;
+            case ENTREGADO, CANCELADO -> false;
+        };
+    }
+
+    /**
+     * Estados desde los que se puede pasar a destino
+     */
+    public static Set<EstadoPedido> origenesDe(EstadoPedido destino) {
+        Set<EstadoPedido> origenes = EnumSet.noneOf(EstadoPedido.class);
+        for (EstadoPedido estado : values()) {
+            if (estado.puedeCambiarA(destino)) {
+                origenes.add(estado);
+            }
+        }
+        return origenes;
+    }
+
+    /**
+     * Acepta la etiqueta o el nombre del enum, sin distinguir mayúsculas
+     */
+    public static Optional<EstadoPedido> desde(String valor) {
+        if (valor == null) {
+            return Optional.empty();
+        }
+        String limpio = valor.trim();
+        return Arrays.stream(values())
+                .filter(e -> e.etiqueta.equalsIgnoreCase(limpio) || e.name().equalsIgnoreCase(limpio))
+                .findFirst();
+    }
+}
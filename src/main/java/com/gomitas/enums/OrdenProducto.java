@@ -0,0 +1,23 @@
+package com.gomitas.enums;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Criterios de orden del catálogo; en todos el desempate es por productoId
+ */
+public enum OrdenProducto {
+    NOMBRE,
+    PRECIO_ASC,
+    PRECIO_DESC,
+    NUEVOS;
+
+    /**
+     * Acepta el nombre del enum sin distinguir mayúsculas
+     */
+    public static Optional<OrdenProducto> desde(String valor) {
+        return Arrays.stream(values())
+                .filter(orden -> orden.name().equalsIgnoreCase(valor.trim()))
+                .findFirst();
+    }
+}
@@ -0,0 +1,7 @@
+package com.gomitas.enums;
+
+public enum TipoEventoPedido {
+    PEDIDO_CREADO,
+    PEDIDO_DESPACHADO,
+    PEDIDO_ENTREGADO
+}
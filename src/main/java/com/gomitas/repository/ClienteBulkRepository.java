@@ -0,0 +1,85 @@
+package com.gomitas.repository;
+
+import com.gomitas.enums.Rol;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inserciones masivas de Usuario + Cliente con JDBC batch.
+ * Las entidades usan IDENTITY, por lo que Hibernate no puede agrupar estos inserts.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ClienteBulkRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public record NuevoCliente(
+            String nombreUsuario,
+            String correo,
+            String passwordHash,
+            String nombre,
+            String direccion,
+            String telefono,
+            String tipoMascota
+    ) {}
+
+    /**
+     * Inserta los usuarios con rol CLIENTE y sus clientes asociados.
+     * Debe llamarse dentro de una transacción.
+     */
+    public int insertClientes(List<NuevoCliente> clientes) {
+        if (clientes.isEmpty()) {
+            return 0;
+        }
+        Date hoy = Date.valueOf(LocalDate.now());
+
+        MapSqlParameterSource[] usuarios = clientes.stream()
+                .map(c -> new MapSqlParameterSource()
+                        .addValue("nombreUsuario", c.nombreUsuario())
+                        .addValue("correo", c.correo())
+                        .addValue("password", c.passwordHash())
+                        // Types.OTHER deja que PostgreSQL convierta el texto al enum de la columna
+                        .addValue("rol", Rol.CLIENTE.name(), Types.OTHER)
+                        .addValue("fechaRegistro", hoy))
+                .toArray(MapSqlParameterSource[]::new);
+
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO usuario (nombre_usuario, correo, password, rol, fecha_registro, estado, token_version) " +
+                        "VALUES (:nombreUsuario, :correo, :password, :rol, :fechaRegistro, true, 0)",
+                usuarios);
+
+        Map<String, Long> idsPorNombre = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT usuario_id, nombre_usuario FROM usuario WHERE nombre_usuario IN (:nombres)",
+                new MapSqlParameterSource("nombres", clientes.stream().map(NuevoCliente::nombreUsuario).toList()),
+                rs -> {
+                    idsPorNombre.put(rs.getString("nombre_usuario"), rs.getLong("usuario_id"));
+                });
+
+        MapSqlParameterSource[] filasCliente = clientes.stream()
+                .map(c -> new MapSqlParameterSource()
+                        .addValue("usuarioId", idsPorNombre.get(c.nombreUsuario()))
+                        .addValue("nombre", c.nombre())
+                        .addValue("direccion", c.direccion())
+                        .addValue("telefono", c.telefono())
+                        .addValue("tipoMascota", c.tipoMascota()))
+                .toArray(MapSqlParameterSource[]::new);
+
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO cliente (usuario_id, nombre, direccion, telefono, tipo_mascota) " +
+                        "VALUES (:usuarioId, :nombre, :direccion, :telefono, :tipoMascota)",
+                filasCliente);
+
+        return clientes.size();
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,4 +25,7 @@ public interface ClienteRepository extends JpaRepository<Cliente, Long> {
     List<Cliente> findByNombreContainingIgnoreCase(String nombre);
 
     boolean existsByUsuario_UsuarioId(Long usuarioId);
+
+    @Query("SELECT c.clienteId FROM Cliente c WHERE c.clienteId IN :ids")
+    List<Long> findIdsExistentes(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
@@ -3,9 +3,15 @@ package com.gomitas.repository;
 import com.gomitas.entity.DetallePedido;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 
 @Repository
 public interface DetallePedidoRepository extends JpaRepository<DetallePedido, Long>, JpaSpecificationExecutor<DetallePedido> {
-}
\ No newline at end of file
+
+    @Query("SELECT d FROM DetallePedido d JOIN FETCH d.producto WHERE d.pedido.pedidoId = :pedidoId ORDER BY d.detalleId")
+    List<DetallePedido> findByPedidoIdWithProducto(@Param("pedidoId") Long pedidoId);
+}
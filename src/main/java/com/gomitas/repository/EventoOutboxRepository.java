@@ -0,0 +1,39 @@
+package com.gomitas.repository;
+
+import com.gomitas.entity.EventoOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface EventoOutboxRepository extends JpaRepository<EventoOutbox, Long> {
+
+    // SKIP LOCKED: varios workers (o réplicas) toman lotes distintos sin esperarse entre sí
+    @Query(value = "SELECT evento_id FROM evento_outbox " +
+            "WHERE procesado = false AND siguiente_intento <= :ahora " +
+            "ORDER BY evento_id LIMIT :limite FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> bloquearPendientes(@Param("ahora") LocalDateTime ahora, @Param("limite") int limite);
+
+    // Aparta los eventos tomados hasta vencer el plazo; si el worker muere, otro los retoma
+    @Modifying
+    @Query("UPDATE EventoOutbox e SET e.siguienteIntento = :hasta WHERE e.eventoId IN :ids")
+    int reservarHasta(@Param("ids") Collection<Long> ids, @Param("hasta") LocalDateTime hasta);
+
+    @Modifying
+    @Query("UPDATE EventoOutbox e SET e.procesado = true, e.fechaProcesado = :ahora, e.siguienteIntento = null " +
+            "WHERE e.eventoId = :id AND e.procesado = false")
+    int marcarProcesado(@Param("id") Long id, @Param("ahora") LocalDateTime ahora);
+
+    @Query("SELECT COUNT(e) FROM EventoOutbox e WHERE e.procesado = false AND e.siguienteIntento IS NOT NULL")
+    long countPendientes();
+
+    @Query("SELECT MIN(e.fechaCreacion) FROM EventoOutbox e WHERE e.procesado = false AND e.siguienteIntento IS NOT NULL")
+    Optional<LocalDateTime> findFechaPendienteMasAntigua();
+}
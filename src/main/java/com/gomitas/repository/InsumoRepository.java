@@ -3,8 +3,10 @@ package com.gomitas.repository;
 import com.gomitas.entity.Insumo;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -12,4 +14,7 @@ public interface InsumoRepository extends JpaRepository<Insumo, Long> {
 
     @Query("SELECT i FROM Insumo i LEFT JOIN FETCH i.lotes")
     List<Insumo> findAllWithLotes();
+
+    @Query("SELECT DISTINCT i FROM Insumo i LEFT JOIN FETCH i.lotes WHERE i.insumoId IN :ids")
+    List<Insumo> findAllWithLotesByIdIn(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
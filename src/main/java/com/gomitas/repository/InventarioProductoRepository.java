@@ -2,10 +2,15 @@ package com.gomitas.repository;
 
 import com.gomitas.entity.InventarioProducto;
 import com.gomitas.entity.Producto;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,4 +22,62 @@ public interface InventarioProductoRepository extends JpaRepository<InventarioPr
     // Este método es necesario para la tarea programada y es correcto.
     @Query("SELECT i FROM InventarioProducto i JOIN FETCH i.producto")
     List<InventarioProducto> findAllWithProducto();
+
+    // Inventarios de varios productos en una sola consulta (creación de pedidos)
+    @Query("SELECT i FROM InventarioProducto i WHERE i.producto.productoId IN :productoIds")
+    List<InventarioProducto> findByProductoIdIn(@Param("productoIds") Collection<Long> productoIds);
+
+    @Query("SELECT i FROM InventarioProducto i JOIN FETCH i.producto WHERE i.producto.productoId IN :productoIds")
+    List<InventarioProducto> findByProductoIdInWithProducto(@Param("productoIds") Collection<Long> productoIds);
+
+    boolean existsByProducto_ProductoId(Long productoId);
+
+    @Query("SELECT i.cantidadDisponible FROM InventarioProducto i WHERE i.producto.productoId = :productoId")
+    Optional<Integer> findCantidadDisponibleByProductoId(@Param("productoId") Long productoId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM InventarioProducto i WHERE i.producto.productoId = :productoId")
+    Optional<InventarioProducto> findByProductoIdForUpdate(@Param("productoId") Long productoId);
+
+    // Bloquea las filas en orden de productoId, el mismo orden que usan los descuentos
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM InventarioProducto i WHERE i.producto.productoId IN :productoIds ORDER BY i.producto.productoId")
+    List<InventarioProducto> findByProductoIdInForUpdate(@Param("productoIds") Collection<Long> productoIds);
+
+    // Descuenta :cantidad, de las cuales :reservada ya estaban apartadas para el pedido.
+    // Solo se aplica si alcanza sin tocar las reservas de otros; devuelve 0 si no alcanzó o no existe el inventario
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE InventarioProducto i SET i.cantidadDisponible = i.cantidadDisponible - :cantidad, " +
+            "i.cantidadReservada = i.cantidadReservada - :reservada, " +
+            "i.fechaActualizacion = LOCAL DATETIME " +
+            "WHERE i.producto.productoId = :productoId AND i.cantidadReservada >= :reservada " +
+            "AND i.cantidadDisponible - i.cantidadReservada + :reservada >= :cantidad")
+    int consumirSiDisponible(@Param("productoId") Long productoId, @Param("cantidad") int cantidad,
+                             @Param("reservada") int reservada);
+
+    // Aparta :cantidad solo si el disponible para prometer (disponible - reservado) alcanza
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE InventarioProducto i SET i.cantidadReservada = i.cantidadReservada + :cantidad " +
+            "WHERE i.producto.productoId = :productoId " +
+            "AND i.cantidadDisponible - i.cantidadReservada >= :cantidad")
+    int reservarSiDisponible(@Param("productoId") Long productoId, @Param("cantidad") int cantidad);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE InventarioProducto i SET i.cantidadReservada = " +
+            "CASE WHEN i.cantidadReservada >= :cantidad THEN i.cantidadReservada - :cantidad ELSE 0 END " +
+            "WHERE i.producto.productoId = :productoId")
+    int liberarReserva(@Param("productoId") Long productoId, @Param("cantidad") int cantidad);
+
+    // Recalcula lo reservado desde el libro de reservas (volcado de productos "hot")
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE InventarioProducto i SET i.cantidadReservada = " +
+            "(SELECT COALESCE(SUM(r.cantidad), 0) FROM ReservaStock r WHERE r.producto = i.producto) " +
+            "WHERE i.producto.productoId IN :productoIds")
+    int sincronizarReservas(@Param("productoIds") Collection<Long> productoIds);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE InventarioProducto i SET i.cantidadDisponible = i.cantidadDisponible + :cantidad, " +
+            "i.fechaActualizacion = LOCAL DATETIME " +
+            "WHERE i.producto.productoId = :productoId")
+    int incrementar(@Param("productoId") Long productoId, @Param("cantidad") int cantidad);
 }
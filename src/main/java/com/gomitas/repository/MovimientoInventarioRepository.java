@@ -2,8 +2,27 @@ package com.gomitas.repository;
 
 import com.gomitas.entity.MovimientoInventario;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface MovimientoInventarioRepository extends JpaRepository<MovimientoInventario, Long> {
+
+    // Movimientos aún no reflejados en el saldo de inventario_producto, en orden de registro.
+    // SKIP LOCKED: dos volcados simultáneos (arranque y programado, o dos réplicas) nunca toman el mismo movimiento
+    @Query(value = "SELECT movimiento_id FROM movimiento_inventario WHERE aplicado = false " +
+            "ORDER BY movimiento_id LIMIT :limite FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> bloquearPendientes(@Param("limite") int limite);
+
+    @Query("SELECT m FROM MovimientoInventario m JOIN FETCH m.producto WHERE m.movimientoId IN :ids ORDER BY m.movimientoId")
+    List<MovimientoInventario> findAllByIdWithProducto(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE MovimientoInventario m SET m.aplicado = true WHERE m.movimientoId IN :ids AND m.aplicado = false")
+    int marcarAplicados(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,105 @@
+package com.gomitas.repository;
+
+import com.gomitas.entity.EventoOutbox;
+import com.gomitas.entity.Pedido;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inserciones en lote del flujo de pedidos con JDBC batch.
+ * Pedido, ReservaStock y EventoOutbox usan IDENTITY, por lo que Hibernate no puede agrupar estos inserts.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PedidoBulkRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserta las reservas de stock de un pedido en un solo batch. Debe llamarse dentro de una transacción.
+     */
+    public void insertReservas(Long pedidoId, Map<Long, Integer> cantidadPorProducto, LocalDateTime expiracion) {
+        if (cantidadPorProducto.isEmpty()) {
+            return;
+        }
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+
+        MapSqlParameterSource[] filas = cantidadPorProducto.entrySet().stream()
+                .map(e -> new MapSqlParameterSource()
+                        .addValue("pedidoId", pedidoId)
+                        .addValue("productoId", e.getKey())
+                        .addValue("cantidad", e.getValue())
+                        .addValue("fechaCreacion", ahora)
+                        .addValue("fechaExpiracion", Timestamp.valueOf(expiracion)))
+                .toArray(MapSqlParameterSource[]::new);
+
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO reserva_stock (pedido_id, producto_id, cantidad, fecha_creacion, fecha_expiracion) " +
+                        "VALUES (:pedidoId, :productoId, :cantidad, :fechaCreacion, :fechaExpiracion)",
+                filas);
+    }
+
+    /**
+     * Inserta eventos del outbox en un solo batch. Debe llamarse dentro de la transacción que los origina.
+     */
+    public void insertEventos(List<EventoOutbox> eventos) {
+        if (eventos.isEmpty()) {
+            return;
+        }
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+
+        MapSqlParameterSource[] filas = eventos.stream()
+                .map(e -> new MapSqlParameterSource()
+                        .addValue("tipo", e.getTipo().name(), Types.OTHER)
+                        .addValue("pedidoId", e.getPedidoId())
+                        .addValue("payload", e.getPayload())
+                        .addValue("fechaCreacion", ahora)
+                        .addValue("siguienteIntento", ahora))
+                .toArray(MapSqlParameterSource[]::new);
+
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO evento_outbox (tipo, pedido_id, payload, fecha_creacion, procesado, intentos, siguiente_intento) " +
+                        "VALUES (:tipo, :pedidoId, :payload, :fechaCreacion, false, 0, :siguienteIntento)",
+                filas);
+    }
+
+    /**
+     * Inserta pedidos en un solo batch y asigna a cada uno su id generado.
+     * Debe llamarse dentro de una transacción.
+     */
+    public void insertPedidos(List<Pedido> pedidos) {
+        if (pedidos.isEmpty()) {
+            return;
+        }
+        MapSqlParameterSource[] filas = pedidos.stream()
+                .map(p -> new MapSqlParameterSource()
+                        .addValue("clienteId", p.getCliente().getClienteId())
+                        .addValue("fechaPedido", p.getFechaPedido())
+                        .addValue("estado", p.getEstado().getEtiqueta())
+                        .addValue("metodoPago", p.getMetodoPago())
+                        .addValue("total", p.getTotal())
+                        .addValue("observaciones", p.getObservaciones()))
+                .toArray(MapSqlParameterSource[]::new);
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO pedido (cliente_id, fecha_pedido, estado, metodo_pago, total, observaciones) " +
+                        "VALUES (:clienteId, :fechaPedido, :estado, :metodoPago, :total, :observaciones)",
+                filas, keyHolder, new String[]{"pedido_id"});
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < pedidos.size(); i++) {
+            pedidos.get(i).setPedidoId(((Number) keys.get(i).get("pedido_id")).longValue());
+        }
+    }
+}
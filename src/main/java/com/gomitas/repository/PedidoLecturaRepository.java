@@ -0,0 +1,128 @@
+package com.gomitas.repository;
+
+import com.gomitas.enums.EstadoPedido;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Consultas de lectura de pedidos proyectadas a filas: solo se seleccionan las columnas de la
+ * respuesta y no se cargan entidades en el contexto de persistencia. Un pedido o una página
+ * se arman con dos consultas, una para los pedidos y otra para sus detalles.
+ *
+ * El listado se pagina por cursor sobre (fechaPedido, pedidoId), del más reciente al más antiguo:
+ * cada página es una consulta por rango sobre los índices de pedido, sin OFFSET ni COUNT.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PedidoLecturaRepository {
+
+    private static final String SELECT_PEDIDO = "SELECT p.pedidoId, c.clienteId, c.nombre, p.fechaPedido, p.estado, " +
+            "p.metodoPago, p.total, p.observaciones FROM Pedido p JOIN p.cliente c";
+
+    private final EntityManager entityManager;
+
+    public record Filtro(EstadoPedido estado, Long clienteId, Long usuarioId, LocalDate desde, LocalDate hasta) {}
+
+    public record Cursor(LocalDate fechaPedido, Long pedidoId) {}
+
+    public record PedidoFila(Long pedidoId, Long clienteId, String nombreCliente, LocalDate fechaPedido,
+                             EstadoPedido estado, String metodoPago, BigDecimal total, String observaciones) {}
+
+    public record DetalleFila(Long detalleId, Long pedidoId, Long productoId, String nombreProducto,
+                              Integer cantidad, BigDecimal precioUnitario, BigDecimal subtotal) {}
+
+    public Optional<PedidoFila> findPedido(Long pedidoId) {
+        return entityManager.createQuery(SELECT_PEDIDO + " WHERE p.pedidoId = :id", Tuple.class)
+                .setParameter("id", pedidoId)
+                .getResultList().stream()
+                .findFirst()
+                .map(PedidoLecturaRepository::aPedidoFila);
+    }
+
+    /**
+     * @param despuesDe último pedido de la página anterior, o null para la primera página
+     */
+    public List<PedidoFila> findPagina(Filtro filtro, Cursor despuesDe, int limite) {
+        StringBuilder jpql = new StringBuilder(SELECT_PEDIDO).append(" WHERE 1 = 1");
+        Map<String, Object> parametros = new HashMap<>();
+
+        if (filtro.estado() != null) {
+            jpql.append(" AND p.estado = :estado");
+            parametros.put("estado", filtro.estado());
+        }
+        if (filtro.clienteId() != null) {
+            jpql.append(" AND c.clienteId = :clienteId");
+            parametros.put("clienteId", filtro.clienteId());
+        }
+        if (filtro.usuarioId() != null) {
+            jpql.append(" AND c.usuario.usuarioId = :usuarioId");
+            parametros.put("usuarioId", filtro.usuarioId());
+        }
+        if (filtro.desde() != null) {
+            jpql.append(" AND p.fechaPedido >= :desde");
+            parametros.put("desde", filtro.desde());
+        }
+        if (filtro.hasta() != null) {
+            jpql.append(" AND p.fechaPedido <= :hasta");
+            parametros.put("hasta", filtro.hasta());
+        }
+        if (despuesDe != null) {
+            // La primera condición acota el rango del índice; la segunda desempata por id dentro del mismo día
+            jpql.append(" AND p.fechaPedido <= :cursorFecha")
+                    .append(" AND (p.fechaPedido < :cursorFecha OR p.pedidoId < :cursorId)");
+            parametros.put("cursorFecha", despuesDe.fechaPedido());
+            parametros.put("cursorId", despuesDe.pedidoId());
+        }
+        jpql.append(" ORDER BY p.fechaPedido DESC, p.pedidoId DESC");
+
+        TypedQuery<Tuple> query = entityManager.createQuery(jpql.toString(), Tuple.class);
+        parametros.forEach(query::setParameter);
+        return query.setMaxResults(limite).getResultList().stream()
+                .map(PedidoLecturaRepository::aPedidoFila)
+                .toList();
+    }
+
+    public List<DetalleFila> findDetalles(Collection<Long> pedidoIds) {
+        if (pedidoIds.isEmpty()) {
+            return List.of();
+        }
+        return entityManager.createQuery(
+                        "SELECT d.detalleId, d.pedido.pedidoId, pr.productoId, pr.nombre, d.cantidad, d.precioUnitario, d.subtotal " +
+                                "FROM DetallePedido d JOIN d.producto pr " +
+                                "WHERE d.pedido.pedidoId IN :ids ORDER BY d.detalleId", Tuple.class)
+                .setParameter("ids", pedidoIds)
+                .getResultList().stream()
+                .map(t -> new DetalleFila(
+                        t.get(0, Long.class),
+                        t.get(1, Long.class),
+                        t.get(2, Long.class),
+                        t.get(3, String.class),
+                        t.get(4, Integer.class),
+                        t.get(5, BigDecimal.class),
+                        t.get(6, BigDecimal.class)))
+                .toList();
+    }
+
+    private static PedidoFila aPedidoFila(Tuple t) {
+        return new PedidoFila(
+                t.get(0, Long.class),
+                t.get(1, Long.class),
+                t.get(2, String.class),
+                t.get(3, LocalDate.class),
+                t.get(4, EstadoPedido.class),
+                t.get(5, String.class),
+                t.get(6, BigDecimal.class),
+                t.get(7, String.class));
+    }
+}
@@ -1,26 +1,48 @@
 package com.gomitas.repository;
 
 import com.gomitas.entity.Pedido;
+import com.gomitas.enums.EstadoPedido;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PedidoRepository extends JpaRepository<Pedido, Long> {
 
+    interface ConteoEstado {
+        EstadoPedido getEstado();
+        Long getCantidad();
+    }
+
     @Query("SELECT p FROM Pedido p LEFT JOIN FETCH p.detalles WHERE p.pedidoId = :id")
     Optional<Pedido> findByIdWithDetails(@Param("id") Long id);
 
-    @Query("SELECT DISTINCT p FROM Pedido p LEFT JOIN FETCH p.detalles")
-    List<Pedido> findAllWithDetails();
+    @Query("SELECT DISTINCT p FROM Pedido p LEFT JOIN FETCH p.detalles d LEFT JOIN FETCH d.producto WHERE p.pedidoId IN :ids")
+    List<Pedido> findAllByIdWithDetails(@Param("ids") Collection<Long> ids);
+
+    // Bloquea los pedidos en orden de pedidoId antes de tocar sus reservas o el inventario
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Pedido p WHERE p.pedidoId IN :ids ORDER BY p.pedidoId")
+    List<Pedido> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
 
-    @Query("SELECT p FROM Pedido p LEFT JOIN FETCH p.detalles WHERE p.cliente.clienteId = :clienteId")
-    List<Pedido> findByCliente_ClienteIdWithDetails(@Param("clienteId") Long clienteId);
+    /**
+     * Cambia el estado solo de los pedidos que siguen en alguno de los estados de origen
+     *
+     * @return cantidad de pedidos actualizados
+     */
+    @Modifying
+    @Query("UPDATE Pedido p SET p.estado = :estado WHERE p.pedidoId IN :ids AND p.estado IN :origenes")
+    int updateEstado(@Param("ids") Collection<Long> ids, @Param("estado") EstadoPedido estado,
+                     @Param("origenes") Collection<EstadoPedido> origenes);
 
-    @Query("SELECT p FROM Pedido p LEFT JOIN FETCH p.detalles WHERE p.cliente.usuario.usuarioId = :usuarioId")
-    List<Pedido> findByCliente_Usuario_UsuarioIdWithDetails(@Param("usuarioId") Long usuarioId);
+    @Query("SELECT p.estado AS estado, COUNT(p) AS cantidad FROM Pedido p GROUP BY p.estado")
+    List<ConteoEstado> contarPorEstado();
 }
@@ -1,15 +1,23 @@
 package com.gomitas.repository;
 
-import com.gomitas.entity.Producto;
 import com.gomitas.entity.ProductoInsumo;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
 public interface ProductoInsumoRepository extends JpaRepository<ProductoInsumo, Long> {
-    List<ProductoInsumo> findByProducto(Producto producto);
-    List<ProductoInsumo> findByProducto_ProductoId(Long productoId);
-    void deleteByProducto_ProductoId(Long productoId);
+
+    @Query("SELECT pi FROM ProductoInsumo pi JOIN FETCH pi.insumo WHERE pi.producto.productoId = :productoId ORDER BY pi.id")
+    List<ProductoInsumo> findByProductoIdWithInsumo(@Param("productoId") Long productoId);
+
+    // Un solo DELETE que se ejecuta en el momento: un borrado por entidad quedaría para el flush,
+    // después de los INSERT de la receta nueva, y chocaría con la restricción única
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM ProductoInsumo pi WHERE pi.producto.productoId = :productoId")
+    int eliminarPorProducto(@Param("productoId") Long productoId);
 }
@@ -1,12 +1,63 @@
 package com.gomitas.repository;
 
 import com.gomitas.entity.Producto;
+import com.gomitas.enums.EstadoImagen;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ProductoRepository extends JpaRepository<Producto, Long> {
+
+    interface ProductoVendible {
+        Long getProductoId();
+        String getNombre();
+        BigDecimal getPrecioUnitario();
+    }
+
+    interface DisponibilidadTienda {
+        Long getProductoId();
+        String getNombre();
+        String getDescripcion();
+        BigDecimal getPrecioUnitario();
+        String getImageUrl();
+        Integer getStockMinimo();
+        Integer getCantidadDisponible();
+        Integer getCantidadReservada();
+    }
+
     List<Producto> findByEstadoTrue();
+
+    // Productos activos con su inventario en una sola consulta; sin inventario las cantidades vienen nulas
+    @Query("SELECT p.productoId AS productoId, p.nombre AS nombre, p.descripcion AS descripcion, " +
+            "p.precioUnitario AS precioUnitario, p.imageUrl AS imageUrl, p.stockMinimo AS stockMinimo, " +
+            "i.cantidadDisponible AS cantidadDisponible, i.cantidadReservada AS cantidadReservada " +
+            "FROM Producto p LEFT JOIN InventarioProducto i ON i.producto = p " +
+            "WHERE p.estado = true ORDER BY p.nombre, p.productoId")
+    List<DisponibilidadTienda> findDisponibilidadTienda();
+
+    // Productos con registro de inventario, los únicos que se pueden pedir
+    @Query("SELECT p.productoId AS productoId, p.nombre AS nombre, p.precioUnitario AS precioUnitario " +
+            "FROM InventarioProducto i JOIN i.producto p")
+    List<ProductoVendible> findVendibles();
+
+    List<Producto> findByEstadoImagen(EstadoImagen estadoImagen);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Producto p WHERE p.productoId = :productoId")
+    Optional<Producto> findByIdForUpdate(@Param("productoId") Long productoId);
+
+    // Solo si la imagen fallida sigue siendo la última enviada para el producto
+    @Modifying
+    @Query("UPDATE Producto p SET p.estadoImagen = com.gomitas.enums.EstadoImagen.FALLIDA, p.imagenPendiente = null " +
+            "WHERE p.productoId = :productoId AND p.imagenPendiente = :ruta")
+    int marcarImagenFallida(@Param("productoId") Long productoId, @Param("ruta") String ruta);
 }
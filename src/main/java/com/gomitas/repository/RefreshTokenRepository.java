@@ -0,0 +1,35 @@
+package com.gomitas.repository;
+
+import com.gomitas.entity.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, String> {
+
+    @Query("SELECT r.jti FROM RefreshToken r WHERE r.revocado = true AND r.fechaExpiracion > :ahora")
+    List<String> findRevokedJtis(@Param("ahora") LocalDateTime ahora);
+
+    @Query("SELECT r.jti FROM RefreshToken r WHERE r.familia = :familia")
+    List<String> findJtisByFamilia(@Param("familia") String familia);
+
+    // Marca el token como usado solo si seguía vigente; devuelve 0 si ya estaba revocado
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.revocado = true, r.reemplazadoPor = :nuevoJti " +
+            "WHERE r.jti = :jti AND r.usuario.usuarioId = :usuarioId AND r.revocado = false")
+    int markRotated(@Param("jti") String jti, @Param("usuarioId") Long usuarioId, @Param("nuevoJti") String nuevoJti);
+
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.revocado = true WHERE r.familia = :familia")
+    int revokeFamilia(@Param("familia") String familia);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken r WHERE r.fechaExpiracion < :ahora")
+    int deleteExpired(@Param("ahora") LocalDateTime ahora);
+}
@@ -0,0 +1,49 @@
+package com.gomitas.repository;
+
+import com.gomitas.entity.ReservaStock;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ReservaStockRepository extends JpaRepository<ReservaStock, Long> {
+
+    // Proyección mínima para liberar o consumir reservas sin cargar las entidades
+    interface ReservaResumen {
+        Long getReservaId();
+        Long getProductoId();
+        Integer getCantidad();
+    }
+
+    @Query("SELECT r.reservaId AS reservaId, r.producto.productoId AS productoId, r.cantidad AS cantidad " +
+            "FROM ReservaStock r WHERE r.pedido.pedidoId = :pedidoId ORDER BY r.reservaId")
+    List<ReservaResumen> findByPedidoId(@Param("pedidoId") Long pedidoId);
+
+    // Recorre el índice por fecha de expiración, sin escanear la tabla
+    @Query("SELECT r.reservaId AS reservaId, r.producto.productoId AS productoId, r.cantidad AS cantidad " +
+            "FROM ReservaStock r WHERE r.fechaExpiracion < :ahora ORDER BY r.fechaExpiracion")
+    List<ReservaResumen> findExpiradas(@Param("ahora") LocalDateTime ahora, Pageable pageable);
+
+    // Reclamar una reserva borrándola: solo una transacción (despacho, cancelación o barrido) obtiene 1
+    @Modifying
+    @Query("DELETE FROM ReservaStock r WHERE r.reservaId = :reservaId")
+    int reclamar(@Param("reservaId") Long reservaId);
+
+    // Bloquea las reservas de varios pedidos (despacho masivo); el barrido y las cancelaciones esperan al commit
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM ReservaStock r WHERE r.pedido.pedidoId IN :pedidoIds ORDER BY r.reservaId")
+    List<ReservaStock> findByPedidoIdInForUpdate(@Param("pedidoIds") Collection<Long> pedidoIds);
+
+    @Modifying
+    @Query("DELETE FROM ReservaStock r WHERE r.pedido.pedidoId IN :pedidoIds")
+    int deleteByPedidoIdIn(@Param("pedidoIds") Collection<Long> pedidoIds);
+}
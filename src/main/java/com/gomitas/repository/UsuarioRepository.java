@@ -2,10 +2,13 @@ package com.gomitas.repository;
 
 import com.gomitas.entity.Usuario;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -24,4 +27,20 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
 
     @Query("SELECT u FROM Usuario u WHERE u.estado = true")
     java.util.List<Usuario> findAllActive();
+
+    @Query("SELECT u.nombreUsuario FROM Usuario u")
+    List<String> findAllNombresUsuario();
+
+    @Query("SELECT u.correo FROM Usuario u WHERE u.correo IS NOT NULL")
+    List<String> findAllCorreos();
+
+    @Query("SELECT u.nombreUsuario FROM Usuario u WHERE u.nombreUsuario IN :nombres")
+    List<String> findExistingNombresUsuario(@Param("nombres") Collection<String> nombres);
+
+    @Query("SELECT u.correo FROM Usuario u WHERE u.correo IN :correos")
+    List<String> findExistingCorreos(@Param("correos") Collection<String> correos);
+
+    @Modifying
+    @Query("UPDATE Usuario u SET u.password = :password WHERE u.nombreUsuario = :nombreUsuario")
+    int updatePassword(@Param("nombreUsuario") String nombreUsuario, @Param("password") String password);
 }
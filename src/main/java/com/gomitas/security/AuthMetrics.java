@@ -0,0 +1,51 @@
+package com.gomitas.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Métricas de las etapas de autenticación y autorización.
+ *
+ * Tiempos: {@code auth.stage} con la etiqueta {@code etapa} (verificacion, principal, autorizacion,
+ * login.autenticacion, login.emision). El hash de contraseñas ya se mide en {@code auth.password.hash}.
+ * Fallos: {@code auth.token.rejected} y {@code auth.login.failed} con la etiqueta {@code motivo};
+ * se cuentan en lugar de escribir una línea de log por cada token expirado.
+ */
+@Component
+@RequiredArgsConstructor
+public class AuthMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> tokenRechazados = new ConcurrentHashMap<>();
+    private final Map<String, Counter> loginFallidos = new ConcurrentHashMap<>();
+
+    public Timer stage(String etapa) {
+        return timers.computeIfAbsent(etapa, e -> Timer.builder("auth.stage")
+                .description("Duración de cada etapa de autenticación y autorización")
+                .tag("etapa", e)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry));
+    }
+
+    public void tokenRechazado(String motivo) {
+        tokenRechazados.computeIfAbsent(motivo, m -> Counter.builder("auth.token.rejected")
+                .description("Tokens JWT rechazados por motivo")
+                .tag("motivo", m)
+                .register(meterRegistry)).increment();
+    }
+
+    public void loginFallido(String motivo) {
+        loginFallidos.computeIfAbsent(motivo, m -> Counter.builder("auth.login.failed")
+                .description("Intentos de login fallidos por motivo")
+                .tag("motivo", m)
+                .register(meterRegistry)).increment();
+    }
+}
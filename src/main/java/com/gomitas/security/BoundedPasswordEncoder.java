@@ -0,0 +1,63 @@
+package com.gomitas.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * PasswordEncoder BCrypt que ejecuta cada hash en el {@link PasswordHashExecutor}
+ * en lugar de hacerlo en el hilo de la petición.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$.{53}$");
+
+    private final BCryptPasswordEncoder delegate;
+    private final PasswordHashExecutor hashExecutor;
+    private final int strength;
+
+    public BoundedPasswordEncoder(int strength, PasswordHashExecutor hashExecutor) {
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.hashExecutor = hashExecutor;
+        this.strength = strength;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return hashExecutor.execute("encode", () -> delegate.encode(rawPassword));
+    }
+
+    /**
+     * Calcula varios hash en el pool a la vez, para las altas masivas
+     */
+    public List<String> encodeAll(List<? extends CharSequence> rawPasswords) {
+        List<Callable<String>> tareas = new ArrayList<>(rawPasswords.size());
+        for (CharSequence rawPassword : rawPasswords) {
+            tareas.add(() -> delegate.encode(rawPassword));
+        }
+        return hashExecutor.executeAll("encode", tareas);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return hashExecutor.execute("matches", () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Indica que el hash debe regenerarse si su costo difiere del configurado,
+     * tanto si se subió como si se bajó el costo.
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_PATTERN.matcher(encodedPassword);
+        return matcher.matches() && Integer.parseInt(matcher.group(1)) != strength;
+    }
+}
@@ -0,0 +1,142 @@
+package com.gomitas.security;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Llavero en memoria con las claves EC (P-256) usadas para firmar y verificar los JWT.
+ *
+ * Las claves se leen de {@code app.jwtKeyDir}: cada {@code <kid>.pub} (X.509, PEM) es una clave
+ * de verificación y cada {@code <kid>.key} (PKCS#8, PEM) una clave de firma. Firma la clave con
+ * el kid mayor que tenga ambos archivos, así rotar consiste en dejar un par nuevo en el directorio
+ * y retirar el anterior cuando ya no queden tokens vigentes firmados con él.
+ * Sin directorio configurado se genera un par efímero al arrancar (solo para desarrollo).
+ */
+@Slf4j
+@Component
+public class JwtKeyRing {
+
+    public record SigningKey(String kid, PrivateKey privateKey) {}
+
+    private record Snapshot(SigningKey signingKey, Map<String, ECPublicKey> publicKeys) {}
+
+    @Value("${app.jwtKeyDir:}")
+    private String keyDir;
+
+    private volatile Snapshot snapshot;
+
+    @PostConstruct
+    void init() {
+        if (StringUtils.hasText(keyDir)) {
+            reload();
+        } else {
+            generateEphemeralKey();
+        }
+    }
+
+    public SigningKey currentSigningKey() {
+        return snapshot.signingKey();
+    }
+
+    public Optional<ECPublicKey> publicKey(String kid) {
+        return Optional.ofNullable(snapshot.publicKeys().get(kid));
+    }
+
+    public Map<String, ECPublicKey> publicKeys() {
+        return snapshot.publicKeys();
+    }
+
+    /**
+     * Vuelve a leer el directorio de claves; si falla se conserva el llavero anterior
+     */
+    @Scheduled(fixedDelayString = "${app.jwtKeyReloadMs:300000}")
+    public void reload() {
+        if (!StringUtils.hasText(keyDir)) {
+            return;
+        }
+        try {
+            Map<String, ECPublicKey> publicKeys = new TreeMap<>();
+            TreeMap<String, PrivateKey> privateKeys = new TreeMap<>();
+            KeyFactory keyFactory = KeyFactory.getInstance("EC");
+
+            try (Stream<Path> files = Files.list(Paths.get(keyDir))) {
+                for (Path file : files.toList()) {
+                    String name = file.getFileName().toString();
+                    if (name.endsWith(".pub")) {
+                        publicKeys.put(stripExtension(name), (ECPublicKey) keyFactory.generatePublic(
+                                new X509EncodedKeySpec(readPem(file))));
+                    } else if (name.endsWith(".key")) {
+                        privateKeys.put(stripExtension(name), keyFactory.generatePrivate(
+                                new PKCS8EncodedKeySpec(readPem(file))));
+                    }
+                }
+            }
+
+            String activeKid = privateKeys.descendingKeySet().stream()
+                    .filter(publicKeys::containsKey)
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("No hay ningún par de claves completo en " + keyDir));
+
+            Snapshot actual = snapshot;
+            snapshot = new Snapshot(new SigningKey(activeKid, privateKeys.get(activeKid)), Map.copyOf(publicKeys));
+            if (actual == null || !actual.signingKey().kid().equals(activeKid)) {
+                log.info("Clave de firma JWT activa: {} ({} claves de verificación)", activeKid, publicKeys.size());
+            }
+        } catch (IOException | GeneralSecurityException | RuntimeException e) {
+            if (snapshot == null) {
+                throw new IllegalStateException("No se pudieron cargar las claves JWT desde " + keyDir, e);
+            }
+            log.warn("No se pudieron recargar las claves JWT, se mantiene el llavero actual: {}", e.getMessage());
+        }
+    }
+
+    private void generateEphemeralKey() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            KeyPair keyPair = generator.generateKeyPair();
+            String kid = "efimera-" + UUID.randomUUID();
+
+            snapshot = new Snapshot(new SigningKey(kid, keyPair.getPrivate()),
+                    Map.of(kid, (ECPublicKey) keyPair.getPublic()));
+            log.warn("app.jwtKeyDir no configurado: se usa una clave JWT efímera; los tokens no sobreviven a un reinicio");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("No se pudo generar la clave JWT", e);
+        }
+    }
+
+    private static byte[] readPem(Path file) throws IOException {
+        String base64 = Files.readString(file)
+                .replaceAll("-----[A-Z ]+-----", "")
+                .replaceAll("\\s", "");
+        return Base64.getDecoder().decode(base64);
+    }
+
+    private static String stripExtension(String name) {
+        return name.substring(0, name.lastIndexOf('.'));
+    }
+}
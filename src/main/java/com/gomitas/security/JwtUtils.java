@@ -4,18 +4,28 @@ import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import lombok.extern.slf4j.Slf4j;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
+import jakarta.annotation.PostConstruct;
+import javax.crypto.SecretKey;
 import java.security.Key;
 import java.util.Date;
+import java.util.Optional;
 
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class JwtUtils {
 
-    @Value("${app.jwtSecret}")
+    private final JwtKeyRing keyRing;
+    private final AuthMetrics authMetrics;
+
+    // Secreto HS256 anterior; solo se usa para aceptar tokens sin kid emitidos antes de migrar a ES256
+    @Value("${app.jwtSecret:}")
     private String jwtSecret;
 
     @Value("${app.jwtExpirationMs}")
@@ -24,66 +34,129 @@ public class JwtUtils {
     @Value("${app.jwtRefreshExpirationMs}")
     private int jwtRefreshExpirationMs;
 
+    // Parser inmutable para todo el proceso; la clave se resuelve por kid contra el llavero
+    private SecretKey legacyKey;
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    void init() {
+        if (StringUtils.hasText(jwtSecret)) {
+            this.legacyKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        }
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return resolveKey(header);
+                    }
+                })
+                .build();
+    }
+
+    private Key resolveKey(JwsHeader header) {
+        String kid = header.getKeyId();
+        if (kid != null) {
+            return keyRing.publicKey(kid)
+                    .orElseThrow(() -> new UnsupportedJwtException("Clave JWT desconocida: " + kid));
+        }
+        if (legacyKey != null && SignatureAlgorithm.HS256.getValue().equals(header.getAlgorithm())) {
+            return legacyKey;
+        }
+        throw new UnsupportedJwtException("JWT sin identificador de clave");
+    }
+
     /**
      * Genera el token JWT
      */
     public String generateJwtToken(Authentication authentication) {
         UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
+        JwtKeyRing.SigningKey signingKey = keyRing.currentSigningKey();
 
         return Jwts.builder()
                 .setSubject(userPrincipal.getUsername())
                 .claim("userId", userPrincipal.getUsuarioId())
                 .claim("rol", userPrincipal.getRol().name())
+                .claim("ver", userPrincipal.getTokenVersion() != null ? userPrincipal.getTokenVersion() : 0)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(key(), SignatureAlgorithm.HS256)
+                .setHeaderParam(JwsHeader.KEY_ID, signingKey.kid())
+                .signWith(signingKey.privateKey(), SignatureAlgorithm.ES256)
                 .compact();
     }
 
     /**
-     * Genera el refresh token
+     * Genera el refresh token con su identificador (jti) y la familia de rotación
      */
-    public String generateRefreshToken(Authentication authentication) {
+    public String generateRefreshToken(Authentication authentication, String jti, String familia, Date expiration) {
         UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
+        JwtKeyRing.SigningKey signingKey = keyRing.currentSigningKey();
 
         return Jwts.builder()
+                .setId(jti)
                 .setSubject(userPrincipal.getUsername())
                 .claim("userId", userPrincipal.getUsuarioId())
                 .claim("type", "refresh")
+                .claim("fam", familia)
                 .setIssuedAt(new Date())
-                .setExpiration(new Date((new Date()).getTime() + jwtRefreshExpirationMs))
-                .signWith(key(), SignatureAlgorithm.HS256)
+                .setExpiration(expiration)
+                .setHeaderParam(JwsHeader.KEY_ID, signingKey.kid())
+                .signWith(signingKey.privateKey(), SignatureAlgorithm.ES256)
                 .compact();
     }
 
     /**
-     * Obtiene la clave para firmar el token
+     * Calcula la fecha de expiración de un refresh token emitido ahora
      */
-    private Key key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+    public Date getRefreshExpirationFromNow() {
+        return new Date(System.currentTimeMillis() + jwtRefreshExpirationMs);
+    }
+
+    /**
+     * Parsea los claims del token con el parser compartido
+     */
+    private Claims parseClaims(String token) {
+        return jwtParser.parseClaimsJws(token).getBody();
+    }
+
+    /**
+     * Parsea y verifica el token una sola vez.
+     * Devuelve vacío si la firma no es válida, el token expiró o está mal formado.
+     */
+    public Optional<VerifiedJwt> verify(String authToken) {
+        try {
+            return Optional.of(VerifiedJwt.from(parseClaims(authToken)));
+        } catch (MalformedJwtException e) {
+            rechazar("malformado", e);
+        } catch (ExpiredJwtException e) {
+            rechazar("expirado", e);
+        } catch (UnsupportedJwtException e) {
+            rechazar("no_soportado", e);
+        } catch (io.jsonwebtoken.security.SecurityException e) {
+            rechazar("firma", e);
+        } catch (IllegalArgumentException e) {
+            rechazar("vacio", e);
+        }
+        return Optional.empty();
+    }
+
+    // Un token rechazado es tráfico normal (sesiones expiradas): se cuenta y solo se registra en debug
+    private void rechazar(String motivo, Exception e) {
+        authMetrics.tokenRechazado(motivo);
+        log.debug("JWT rechazado ({}): {}", motivo, e.getMessage());
     }
 
     /**
      * Obtiene el username del token JWT
      */
     public String getUserNameFromJwtToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return parseClaims(token).getSubject();
     }
 
     /**
      * Obtiene el userId del token JWT
      */
     public Long getUserIdFromJwtToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        Claims claims = parseClaims(token);
 
         return Long.valueOf(claims.get("userId").toString());
     }
@@ -92,11 +165,7 @@ public class JwtUtils {
      * Obtiene el rol del token JWT
      */
     public String getRolFromJwtToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        Claims claims = parseClaims(token);
 
         return claims.get("rol").toString();
     }
@@ -105,53 +174,14 @@ public class JwtUtils {
      * Valida el token JWT
      */
     public boolean validateJwtToken(String authToken) {
-        try {
-            Jwts.parserBuilder()
-                    .setSigningKey(key())
-                    .build()
-                    .parseClaimsJws(authToken);
-            return true;
-        } catch (MalformedJwtException e) {
-            log.error("Invalid JWT token: {}", e.getMessage());
-        } catch (ExpiredJwtException e) {
-            log.error("JWT token is expired: {}", e.getMessage());
-        } catch (UnsupportedJwtException e) {
-            log.error("JWT token is unsupported: {}", e.getMessage());
-        } catch (IllegalArgumentException e) {
-            log.error("JWT claims string is empty: {}", e.getMessage());
-        }
-        return false;
-    }
-
-    /**
-     * Valida si es un refresh token
-     */
-    public boolean isRefreshToken(String token) {
-        try {
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(key())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-
-            String type = (String) claims.get("type");
-            return "refresh".equals(type);
-        } catch (Exception e) {
-            log.error("Error validating refresh token: {}", e.getMessage());
-            return false;
-        }
+        return verify(authToken).isPresent();
     }
 
     /**
      * Obtiene el tiempo de expiración del token
      */
     public Date getExpirationDateFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getExpiration();
+        return parseClaims(token).getExpiration();
     }
 
     /**
@@ -0,0 +1,157 @@
+package com.gomitas.security;
+
+import com.gomitas.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool acotado donde se ejecutan los hash de contraseñas (BCrypt).
+ * Limita cuántos hash corren a la vez y cuántos esperan en cola; si la cola está llena
+ * rechaza de inmediato con 503 para no dejar sin hilos al resto de la API.
+ */
+@Slf4j
+@Component
+public class PasswordHashExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final MeterRegistry meterRegistry;
+    private final Timer queueWaitTimer;
+    private final Counter rejectedCounter;
+    private final Map<String, Timer> hashTimers = new ConcurrentHashMap<>();
+    private final long timeoutMs;
+    private final long retryAfterSeconds;
+
+    public PasswordHashExecutor(MeterRegistry meterRegistry,
+                                @Value("${app.passwordHash.poolSize:0}") int poolSize,
+                                @Value("${app.passwordHash.queueCapacity:64}") int queueCapacity,
+                                @Value("${app.passwordHash.timeoutMs:5000}") long timeoutMs,
+                                @Value("${app.passwordHash.retryAfterSeconds:2}") long retryAfterSeconds) {
+        int threads = poolSize > 0 ? poolSize : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadNumber = new AtomicInteger();
+
+        this.executor = new ThreadPoolExecutor(
+                threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.meterRegistry = meterRegistry;
+        this.timeoutMs = timeoutMs;
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        this.queueWaitTimer = Timer.builder("auth.password.queue.wait")
+                .description("Tiempo de espera en cola antes de calcular el hash")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("auth.password.rejected")
+                .description("Hash de contraseñas rechazados por cola llena o tiempo agotado")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.queue.size", executor, e -> e.getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder("auth.password.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+
+        log.info("Pool de hash de contraseñas: {} hilos, cola de {}", threads, queueCapacity);
+    }
+
+    /**
+     * Ejecuta la operación de hash en el pool y espera su resultado
+     */
+    public <T> T execute(String operacion, Callable<T> tarea) {
+        return esperar(enviar(operacion, tarea));
+    }
+
+    /**
+     * Ejecuta varias operaciones de hash y espera sus resultados, en el orden de las tareas.
+     * Se envían de a tantas como hilos tiene el pool, para dejar lugar en la cola a los
+     * logins y registros que llegan mientras tanto.
+     */
+    public <T> List<T> executeAll(String operacion, List<Callable<T>> tareas) {
+        int ventana = executor.getMaximumPoolSize();
+        List<T> resultados = new ArrayList<>(tareas.size());
+        for (int inicio = 0; inicio < tareas.size(); inicio += ventana) {
+            List<Future<T>> futuros = new ArrayList<>();
+            try {
+                for (Callable<T> tarea : tareas.subList(inicio, Math.min(inicio + ventana, tareas.size()))) {
+                    futuros.add(enviar(operacion, tarea));
+                }
+                for (Future<T> futuro : futuros) {
+                    resultados.add(esperar(futuro));
+                }
+            } catch (RuntimeException e) {
+                futuros.forEach(futuro -> futuro.cancel(true));
+                throw e;
+            }
+        }
+        return resultados;
+    }
+
+    private <T> Future<T> enviar(String operacion, Callable<T> tarea) {
+        long encolado = System.nanoTime();
+        Timer hashTimer = hashTimer(operacion);
+        try {
+            return executor.submit(() -> {
+                queueWaitTimer.record(System.nanoTime() - encolado, TimeUnit.NANOSECONDS);
+                return hashTimer.recordCallable(tarea);
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            log.warn("Cola de hash de contraseñas llena, se rechaza la operación: {}", operacion);
+            throw new ServiceUnavailableException("Servicio de autenticación saturado, intente nuevamente", retryAfterSeconds);
+        }
+    }
+
+    private <T> T esperar(Future<T> future) {
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejectedCounter.increment();
+            throw new ServiceUnavailableException("Servicio de autenticación saturado, intente nuevamente", retryAfterSeconds);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Operación de autenticación interrumpida", retryAfterSeconds);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Error calculando el hash de la contraseña", e.getCause());
+        }
+    }
+
+    private Timer hashTimer(String operacion) {
+        return hashTimers.computeIfAbsent(operacion, op -> Timer.builder("auth.password.hash")
+                .description("Duración del cálculo de hash de contraseñas")
+                .tag("operacion", op)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,100 @@
+package com.gomitas.security;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limitador de intentos por clave (IP, usuario) basado en token buckets sin bloqueos.
+ *
+ * Cada bucket se guarda en un único AtomicLong con el "tiempo teórico de llegada" (GCRA):
+ * consumir un intento es un compareAndSet, sin locks ni objetos nuevos por petición.
+ * Las claves se reparten en franjas con capacidad fija; si una franja se llena, las claves
+ * nuevas comparten un bucket de desborde, así la memoria queda acotada incluso con IPs aleatorias.
+ */
+public class StripedRateLimiter {
+
+    private final ConcurrentHashMap<String, AtomicLong>[] stripes;
+    private final AtomicLong[] overflowBuckets;
+    private final int maxEntriesPerStripe;
+    private final long intervalNanos;
+    private final long burstNanos;
+
+    /**
+     * @param permitsPerMinute intentos sostenidos por minuto
+     * @param burst            intentos permitidos de golpe
+     * @param maxEntries       máximo de claves en memoria
+     * @param stripeCount      número de franjas
+     */
+    @SuppressWarnings("unchecked")
+    public StripedRateLimiter(int permitsPerMinute, int burst, int maxEntries, int stripeCount) {
+        this.stripes = new ConcurrentHashMap[stripeCount];
+        this.overflowBuckets = new AtomicLong[stripeCount];
+        long now = System.nanoTime();
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+            overflowBuckets[i] = new AtomicLong(now);
+        }
+        this.maxEntriesPerStripe = Math.max(1, maxEntries / stripeCount);
+        this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / Math.max(1, permitsPerMinute);
+        this.burstNanos = intervalNanos * Math.max(1, burst);
+    }
+
+    /**
+     * Intenta consumir un intento para la clave.
+     *
+     * @return 0 si se permite; si no, los nanosegundos hasta el próximo intento disponible
+     */
+    public long tryAcquire(String key) {
+        long now = System.nanoTime();
+        AtomicLong bucket = bucketFor(key, now);
+
+        while (true) {
+            long tat = bucket.get();
+            long start = tat - now < 0 ? now : tat;
+            long newTat = start + intervalNanos;
+            long exceso = newTat - now - burstNanos;
+            if (exceso > 0) {
+                return exceso;
+            }
+            if (bucket.compareAndSet(tat, newTat)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Elimina los buckets inactivos (ya recargados por completo)
+     */
+    public void evictIdle() {
+        long now = System.nanoTime();
+        for (ConcurrentHashMap<String, AtomicLong> stripe : stripes) {
+            stripe.values().removeIf(bucket -> bucket.get() - now <= 0);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (ConcurrentHashMap<String, AtomicLong> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    private AtomicLong bucketFor(String key, long now) {
+        int index = Math.floorMod(key.hashCode() ^ (key.hashCode() >>> 16), stripes.length);
+        ConcurrentHashMap<String, AtomicLong> stripe = stripes[index];
+
+        AtomicLong bucket = stripe.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (stripe.size() >= maxEntriesPerStripe) {
+            stripe.values().removeIf(b -> b.get() - now <= 0);
+            if (stripe.size() >= maxEntriesPerStripe) {
+                return overflowBuckets[index];
+            }
+        }
+        return stripe.computeIfAbsent(key, k -> new AtomicLong(now));
+    }
+}
@@ -0,0 +1,34 @@
+package com.gomitas.security;
+
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.core.Authentication;
+
+import java.util.function.Supplier;
+
+/**
+ * Mide el tiempo de la decisión de autorización de las reglas HTTP
+ */
+public class TimedAuthorizationManager<T> implements AuthorizationManager<T> {
+
+    private final AuthorizationManager<T> delegate;
+    private final Timer timer;
+
+    public TimedAuthorizationManager(AuthorizationManager<T> delegate, AuthMetrics authMetrics) {
+        this.delegate = delegate;
+        this.timer = authMetrics.stage("autorizacion");
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public AuthorizationDecision check(Supplier<Authentication> authentication, T object) {
+        return timer.record(() -> delegate.check(authentication, object));
+    }
+
+    @Override
+    public AuthorizationResult authorize(Supplier<Authentication> authentication, T object) {
+        return timer.record(() -> delegate.authorize(authentication, object));
+    }
+}
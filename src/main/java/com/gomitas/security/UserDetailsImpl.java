@@ -29,6 +29,7 @@ public class UserDetailsImpl implements UserDetails {
     private String contraseña;
     private Rol rol;
     private Boolean estado;
+    private Integer tokenVersion;
 
     /**
      * Factory method para crear UserDetailsImpl desde Usuario
@@ -41,6 +42,21 @@ public class UserDetailsImpl implements UserDetails {
                 .contraseña(usuario.getPassword())
                 .rol(usuario.getRol())
                 .estado(usuario.getEstado())
+                .tokenVersion(usuario.getTokenVersion())
+                .build();
+    }
+
+    /**
+     * Factory method para crear UserDetailsImpl desde un token ya verificado,
+     * sin consultar la base de datos. No incluye correo ni contraseña.
+     */
+    public static UserDetailsImpl fromToken(VerifiedJwt token) {
+        return UserDetailsImpl.builder()
+                .usuarioId(token.userId())
+                .nombreUsuario(token.subject())
+                .rol(Rol.valueOf(token.rol()))
+                .estado(true)
+                .tokenVersion(token.tokenVersion())
                 .build();
     }
 
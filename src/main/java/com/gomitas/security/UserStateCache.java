@@ -0,0 +1,97 @@
+package com.gomitas.security;
+
+import com.gomitas.entity.Usuario;
+import com.gomitas.repository.UsuarioRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tabla en memoria con el estado de cada usuario (activo y versión de token).
+ * Permite autenticar peticiones desde los claims del JWT sin consultar la base de datos;
+ * se invalida desde UsuarioService cuando un usuario se actualiza o se desactiva.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserStateCache {
+
+    private final UsuarioRepository usuarioRepository;
+
+    private final Map<Long, UserState> states = new ConcurrentHashMap<>();
+
+    @Value("${app.userStateCacheMaxEntries:10000}")
+    private int maxEntries;
+
+    public record UserState(boolean activo, int tokenVersion) {}
+
+    /**
+     * Verifica que el usuario del token siga activo y que la versión del token sea la vigente
+     */
+    public boolean isTokenCurrent(VerifiedJwt token) {
+        UserState state = getState(token.userId());
+        if (state == null || !state.activo()) {
+            return false;
+        }
+        int version = token.tokenVersion() != null ? token.tokenVersion() : 0;
+        return version == state.tokenVersion();
+    }
+
+    /**
+     * Elimina el estado cacheado del usuario; la siguiente petición lo recarga
+     */
+    public void invalidate(Long usuarioId) {
+        if (usuarioId == null) {
+            return;
+        }
+        states.remove(usuarioId);
+
+        // Se repite tras el commit para no conservar un estado recargado antes de confirmar el cambio
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    states.remove(usuarioId);
+                }
+            });
+        }
+        log.debug("Estado de usuario invalidado: {}", usuarioId);
+    }
+
+    private UserState getState(Long usuarioId) {
+        if (usuarioId == null) {
+            return null;
+        }
+        UserState state = states.get(usuarioId);
+        if (state != null) {
+            return state;
+        }
+
+        UserState loaded = usuarioRepository.findById(usuarioId)
+                .map(this::toState)
+                .orElse(null);
+        if (loaded == null) {
+            return null;
+        }
+
+        // La tabla es pequeña; si se llena se vacía y se vuelve a poblar bajo demanda
+        if (states.size() >= maxEntries) {
+            states.clear();
+        }
+        states.putIfAbsent(usuarioId, loaded);
+        return loaded;
+    }
+
+    private UserState toState(Usuario usuario) {
+        return new UserState(
+                Boolean.TRUE.equals(usuario.getEstado()),
+                usuario.getTokenVersion() != null ? usuario.getTokenVersion() : 0
+        );
+    }
+}
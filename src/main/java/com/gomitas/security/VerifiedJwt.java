@@ -0,0 +1,52 @@
+package com.gomitas.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.Date;
+
+/**
+ * Token JWT ya parseado y con la firma verificada.
+ * Se obtiene una sola vez por petición desde {@link JwtUtils#verify(String)}
+ * para no volver a verificar la firma en cada lectura de un claim.
+ */
+public record VerifiedJwt(
+        String subject,
+        Long userId,
+        String rol,
+        String type,
+        Integer tokenVersion,
+        String id,
+        String family,
+        Date expiration
+) {
+
+    /**
+     * Factory method para crear el token verificado desde los claims
+     */
+    static VerifiedJwt from(Claims claims) {
+        Object userId = claims.get("userId");
+        Object rol = claims.get("rol");
+        Object type = claims.get("type");
+        Object tokenVersion = claims.get("ver");
+        Object family = claims.get("fam");
+
+        return new VerifiedJwt(
+                claims.getSubject(),
+                userId != null ? Long.valueOf(userId.toString()) : null,
+                rol != null ? rol.toString() : null,
+                type != null ? type.toString() : null,
+                tokenVersion != null ? Integer.valueOf(tokenVersion.toString()) : 0,
+                claims.getId(),
+                family != null ? family.toString() : null,
+                claims.getExpiration()
+        );
+    }
+
+    public boolean isRefreshToken() {
+        return "refresh".equals(type);
+    }
+
+    public boolean isExpired() {
+        return expiration != null && expiration.before(new Date());
+    }
+}
@@ -8,6 +8,8 @@ public interface AuthService {
 
     AuthDtos.AuthResponseDto register(AuthDtos.RegisterRequestDto registerRequest);
 
+    AuthDtos.BulkRegisterResponseDto registerBulk(AuthDtos.BulkRegisterRequestDto bulkRequest);
+
     AuthDtos.UserInfoDto getCurrentUser(Authentication authentication);
 
     AuthDtos.AuthResponseDto refreshToken(AuthDtos.RefreshTokenRequestDto refreshRequest);
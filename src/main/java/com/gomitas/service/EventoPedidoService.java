@@ -0,0 +1,19 @@
+package com.gomitas.service;
+
+import com.gomitas.enums.TipoEventoPedido;
+
+import java.util.Map;
+
+public interface EventoPedidoService {
+
+    /**
+     * Escribe el evento en el outbox dentro de la transacción en curso; sus efectos
+     * (ventas, alertas) los ejecuta el worker del outbox después del commit
+     */
+    void publicar(TipoEventoPedido tipo, Long pedidoId, Object payload);
+
+    /**
+     * Igual que {@link #publicar}, para varios pedidos en un solo batch
+     */
+    void publicar(TipoEventoPedido tipo, Map<Long, ?> payloadPorPedido);
+}
@@ -0,0 +1,16 @@
+package com.gomitas.service;
+
+import com.gomitas.dto.PedidoDtos;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+
+public interface PedidoImportacionService {
+
+    /**
+     * Importa pedidos desde un CSV con columnas cliente_id, producto_id, cantidad y, opcionalmente,
+     * referencia, metodo_pago y observaciones. Las líneas consecutivas con el mismo cliente_id y
+     * referencia forman un pedido.
+     */
+    PedidoDtos.ImportacionPedidosResponseDto importarCsv(MultipartFile archivo) throws IOException;
+}
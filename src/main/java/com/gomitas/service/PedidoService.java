@@ -8,10 +8,12 @@ import java.util.Optional;
 
 public interface PedidoService {
     PedidoDtos.PedidoResponseDto createPedido(PedidoDtos.CreatePedidoRequestDto pedidoDto, Authentication authentication);
-    List<PedidoDtos.PedidoResponseDto> findAll();
+    PedidoDtos.PaginaPedidosDto findAll(PedidoDtos.ConsultaPedidosDto consulta);
     Optional<PedidoDtos.PedidoResponseDto> findById(Long id);
-    List<PedidoDtos.PedidoResponseDto> findByClienteId(Long clienteId);
-    List<PedidoDtos.PedidoResponseDto> findByCurrentUser(Authentication authentication);
+    PedidoDtos.PaginaPedidosDto findByClienteId(Long clienteId, PedidoDtos.ConsultaPedidosDto consulta);
+    PedidoDtos.PaginaPedidosDto findByCurrentUser(Authentication authentication, PedidoDtos.ConsultaPedidosDto consulta);
     PedidoDtos.PedidoResponseDto updatePedidoStatus(Long id, String estado);
     PedidoDtos.PedidoResponseDto despacharPedido(Long pedidoId);
+    PedidoDtos.DespachoMasivoResponseDto despacharPedidos(List<Long> pedidoIds);
+    List<PedidoDtos.ConteoEstadoDto> contarPorEstado();
 }
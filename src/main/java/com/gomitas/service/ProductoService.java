@@ -10,6 +10,8 @@ import java.util.Optional;
 public interface ProductoService {
     List<ProductoDtos.ProductoResponseDto> findAll();
     List<ProductoDtos.ProductoResponseDto> findAllActive();
+    ProductoDtos.CatalogoActivoDto buscarCatalogo(ProductoDtos.ConsultaProductosDto consulta);
+    List<ProductoDtos.ProductoTiendaDto> findTienda();
     Optional<ProductoDtos.ProductoResponseDto> findById(Long id);
     ProductoDtos.ProductoResponseDto save(ProductoDtos.CreateProductoRequestDto productoDto, MultipartFile imagen) throws IOException;
     ProductoDtos.ProductoResponseDto update(Long id, ProductoDtos.UpdateProductoRequestDto productoDto, MultipartFile imagen) throws IOException;
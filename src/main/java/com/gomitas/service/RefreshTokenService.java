@@ -0,0 +1,11 @@
+package com.gomitas.service;
+
+import com.gomitas.security.VerifiedJwt;
+import org.springframework.security.core.Authentication;
+
+public interface RefreshTokenService {
+
+    String createRefreshToken(Authentication authentication);
+
+    String rotateRefreshToken(VerifiedJwt refreshToken, Authentication authentication);
+}
@@ -0,0 +1,42 @@
+package com.gomitas.service;
+
+import com.gomitas.entity.Pedido;
+import com.gomitas.service.impl.util.StockMutationEngine;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface ReservaStockService {
+
+    /**
+     * Aparta stock para las líneas del pedido que caben en el disponible para prometer
+     *
+     * @return las líneas (agrupadas por producto) que quedaron sin reserva
+     */
+    List<StockMutationEngine.Linea> reservar(Pedido pedido, Collection<StockMutationEngine.Linea> lineas);
+
+    /**
+     * Reclama las reservas vigentes del pedido para consumirlas en el despacho
+     *
+     * @return unidades reservadas por producto
+     */
+    Map<Long, Integer> reclamarReservas(Long pedidoId);
+
+    /**
+     * Libera las reservas vigentes del pedido (cancelación)
+     */
+    void liberarReservas(Long pedidoId);
+
+    /**
+     * Bloquea las reservas vigentes de varios pedidos hasta el fin de la transacción
+     *
+     * @return por pedido, unidades reservadas por producto
+     */
+    Map<Long, Map<Long, Integer>> bloquearReservas(Collection<Long> pedidoIds);
+
+    /**
+     * Elimina las reservas (ya bloqueadas y consumidas) de los pedidos indicados
+     */
+    void eliminarReservas(Collection<Long> pedidoIds);
+}
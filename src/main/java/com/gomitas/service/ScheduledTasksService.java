@@ -2,9 +2,11 @@ package com.gomitas.service;
 
 import com.gomitas.dto.DashboardDtos;
 import com.gomitas.entity.*;
+import com.gomitas.enums.EstadoPedido;
 import com.gomitas.enums.PrioridadAlerta;
 import com.gomitas.enums.TipoAlerta;
 import com.gomitas.repository.*;
+import com.gomitas.service.impl.util.PedidoEstadoCounters;
 import lombok.RequiredArgsConstructor;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
@@ -27,10 +29,10 @@ public class ScheduledTasksService {
     private final AlertaRepository alertaRepository;
     private final ClienteRepository clienteRepository;
     private final ProductoRepository productoRepository;
-    private final PedidoRepository pedidoRepository;
     private final VentasHistoricasRepository ventasHistoricasRepository;
     private final DetallePedidoRepository detallePedidoRepository;
     private final LoteInsumoRepository loteInsumoRepository;
+    private final PedidoEstadoCounters pedidoEstadoCounters;
 
     @Scheduled(cron = "0 0 * * * *") // cada hora
     @Transactional(readOnly = true)
@@ -75,9 +77,9 @@ public class ScheduledTasksService {
     public DashboardDtos.MetricasResponseDto getDashboardMetrics() {
         long totalClientes = clienteRepository.count();
         long totalProductos = productoRepository.count();
-        
+        long pedidosPendientes = pedidoEstadoCounters.cantidad(EstadoPedido.PENDIENTE);
+
         // Cálculos en memoria para estabilidad
-        long pedidosPendientes = pedidoRepository.findAll().stream().filter(p -> "Pendiente".equalsIgnoreCase(p.getEstado())).count();
         long productosConStockBajo = inventarioRepository.findAllWithProducto().stream().filter(i -> i.getCantidadDisponible() < i.getProducto().getStockMinimo()).count();
         long insumosPorVencer = loteInsumoRepository.findAll().stream().filter(l -> l.getFechaVencimiento() != null && l.getFechaVencimiento().isBefore(LocalDate.now().plusDays(7))).count();
         long alertasActivas = alertaRepository.findAll().stream().filter(a -> !a.isLeida()).count();
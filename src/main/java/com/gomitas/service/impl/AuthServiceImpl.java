@@ -6,21 +6,37 @@ import com.gomitas.entity.Usuario;
 import com.gomitas.enums.Rol;
 import com.gomitas.exception.BadRequestException;
 import com.gomitas.exception.ResourceNotFoundException;
+import com.gomitas.repository.ClienteBulkRepository;
 import com.gomitas.repository.ClienteRepository;
 import com.gomitas.repository.UsuarioRepository;
+import com.gomitas.security.AuthMetrics;
+import com.gomitas.security.BoundedPasswordEncoder;
 import com.gomitas.security.JwtUtils;
 import com.gomitas.security.UserDetailsImpl;
+import com.gomitas.security.VerifiedJwt;
 import com.gomitas.service.AuthService;
+import com.gomitas.service.RefreshTokenService;
+import com.gomitas.service.impl.util.UsuarioMembershipIndex;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.authentication.LockedException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 @Slf4j
 @Service
@@ -30,25 +46,37 @@ public class AuthServiceImpl implements AuthService {
     private final AuthenticationManager authenticationManager;
     private final UsuarioRepository usuarioRepository;
     private final ClienteRepository clienteRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final BoundedPasswordEncoder passwordEncoder;
     private final JwtUtils jwtUtils;
+    private final ClienteBulkRepository clienteBulkRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final RefreshTokenService refreshTokenService;
+    private final UsuarioMembershipIndex membershipIndex;
+    private final AuthMetrics authMetrics;
+
+    @Value("${app.bulkImport.chunkSize:500}")
+    private int bulkChunkSize;
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional
     public AuthDtos.AuthResponseDto login(AuthDtos.LoginRequestDto loginRequest) {
         log.debug("Iniciando proceso de login para usuario: {}", loginRequest.getNombreUsuario());
 
         try {
-            Authentication authentication = authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(
-                            loginRequest.getNombreUsuario(),
-                            loginRequest.getContraseña()
-                    )
-            );
+            // Incluye la carga del usuario y la verificación del hash (auth.password.hash mide solo el hash)
+            Authentication authentication = authMetrics.stage("login.autenticacion").record(() ->
+                    authenticationManager.authenticate(
+                            new UsernamePasswordAuthenticationToken(
+                                    loginRequest.getNombreUsuario(),
+                                    loginRequest.getContraseña()
+                            )
+                    ));
 
             UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+            Timer.Sample emision = Timer.start();
             String jwt = jwtUtils.generateJwtToken(authentication);
-            String refreshToken = jwtUtils.generateRefreshToken(authentication);
+            String refreshToken = refreshTokenService.createRefreshToken(authentication);
+            emision.stop(authMetrics.stage("login.emision"));
 
             log.info("Login exitoso para usuario: {}", loginRequest.getNombreUsuario());
 
@@ -62,21 +90,35 @@ public class AuthServiceImpl implements AuthService {
                     .build();
 
         } catch (AuthenticationException e) {
-            log.error("Error en autenticación para usuario: {}", loginRequest.getNombreUsuario());
+            authMetrics.loginFallido(motivoFallo(e));
+            log.debug("Error en autenticación para usuario: {}", loginRequest.getNombreUsuario());
             throw new BadCredentialsException("Credenciales inválidas");
         }
     }
 
+    private String motivoFallo(AuthenticationException e) {
+        if (e instanceof BadCredentialsException) {
+            return "credenciales";
+        }
+        if (e instanceof DisabledException) {
+            return "deshabilitado";
+        }
+        if (e instanceof LockedException) {
+            return "bloqueado";
+        }
+        return "otro";
+    }
+
     @Override
     @Transactional
     public AuthDtos.AuthResponseDto register(AuthDtos.RegisterRequestDto registerRequest) {
         log.debug("Iniciando proceso de registro para usuario: {}", registerRequest.getNombreUsuario());
 
-        if (usuarioRepository.existsByNombreUsuario(registerRequest.getNombreUsuario())) {
+        if (membershipIndex.existsByNombreUsuario(registerRequest.getNombreUsuario())) {
             throw new BadRequestException("Error: El nombre de usuario ya está en uso!");
         }
 
-        if (registerRequest.getCorreo() != null && usuarioRepository.existsByCorreo(registerRequest.getCorreo())) {
+        if (registerRequest.getCorreo() != null && membershipIndex.existsByCorreo(registerRequest.getCorreo())) {
             throw new BadRequestException("Error: El email ya está en uso!");
         }
 
@@ -87,7 +129,13 @@ public class AuthServiceImpl implements AuthService {
                 .rol(Rol.CLIENTE)
                 .build();
 
-        Usuario usuarioGuardado = usuarioRepository.save(usuario);
+        Usuario usuarioGuardado;
+        try {
+            usuarioGuardado = usuarioRepository.save(usuario);
+        } catch (DataIntegrityViolationException e) {
+            throw UsuarioMembershipIndex.conflictoDeAlta(e);
+        }
+        membershipIndex.add(usuarioGuardado.getNombreUsuario(), usuarioGuardado.getCorreo());
         log.debug("Usuario creado con ID: {}", usuarioGuardado.getUsuarioId());
 
         Cliente cliente = Cliente.builder()
@@ -101,15 +149,14 @@ public class AuthServiceImpl implements AuthService {
         clienteRepository.save(cliente);
         log.debug("Cliente creado para usuario ID: {}", usuarioGuardado.getUsuarioId());
 
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        registerRequest.getNombreUsuario(),
-                        registerRequest.getContraseña()
-                )
+        // El usuario recién guardado ya es la identidad autenticada; no hace falta verificar de nuevo el hash
+        UserDetailsImpl userDetails = UserDetailsImpl.build(usuarioGuardado);
+        Authentication authentication = new UsernamePasswordAuthenticationToken(
+                userDetails, null, userDetails.getAuthorities()
         );
 
         String jwt = jwtUtils.generateJwtToken(authentication);
-        String refreshToken = jwtUtils.generateRefreshToken(authentication);
+        String refreshToken = refreshTokenService.createRefreshToken(authentication);
 
         log.info("Registro exitoso para usuario: {}", registerRequest.getNombreUsuario());
 
@@ -124,6 +171,90 @@ public class AuthServiceImpl implements AuthService {
                 .build();
     }
 
+    @Override
+    public AuthDtos.BulkRegisterResponseDto registerBulk(AuthDtos.BulkRegisterRequestDto bulkRequest) {
+        List<AuthDtos.RegisterRequestDto> solicitudes = bulkRequest.usuarios();
+        List<String> errores = new ArrayList<>();
+
+        // Descarta duplicados dentro del mismo archivo
+        Set<String> nombresVistos = new HashSet<>();
+        Set<String> correosVistos = new HashSet<>();
+        List<Candidato> candidatos = new ArrayList<>();
+        for (int i = 0; i < solicitudes.size(); i++) {
+            AuthDtos.RegisterRequestDto solicitud = solicitudes.get(i);
+            if (!nombresVistos.add(solicitud.getNombreUsuario())) {
+                errores.add("Fila " + (i + 1) + ": nombre de usuario repetido en la importación: " + solicitud.getNombreUsuario());
+            } else if (solicitud.getCorreo() != null && !correosVistos.add(solicitud.getCorreo())) {
+                errores.add("Fila " + (i + 1) + ": email repetido en la importación: " + solicitud.getCorreo());
+            } else {
+                candidatos.add(new Candidato(i + 1, solicitud));
+            }
+        }
+
+        int registrados = 0;
+        for (int inicio = 0; inicio < candidatos.size(); inicio += bulkChunkSize) {
+            List<Candidato> lote = candidatos.subList(inicio, Math.min(inicio + bulkChunkSize, candidatos.size()));
+            // Los errores del lote se suman solo si se confirma; si falla, el lote entero queda sin registrar
+            List<String> erroresLote = new ArrayList<>();
+            try {
+                Integer insertados = transactionTemplate.execute(status -> registrarLote(lote, erroresLote));
+                registrados += insertados != null ? insertados : 0;
+                errores.addAll(erroresLote);
+            } catch (RuntimeException e) {
+                log.warn("No se pudo registrar un lote de {} clientes: {}", lote.size(), e.getMessage());
+                for (Candidato candidato : lote) {
+                    errores.add("Fila " + candidato.fila() + ": no se pudo registrar: " + e.getMessage());
+                }
+            }
+        }
+
+        log.info("Importación masiva de clientes: {} registrados de {} recibidos", registrados, solicitudes.size());
+        return new AuthDtos.BulkRegisterResponseDto(solicitudes.size(), registrados, errores);
+    }
+
+    // Solicitud de la importación masiva con su número de fila (desde 1)
+    private record Candidato(int fila, AuthDtos.RegisterRequestDto solicitud) {}
+
+    private int registrarLote(List<Candidato> lote, List<String> errores) {
+        Set<String> nombresExistentes = new HashSet<>(usuarioRepository.findExistingNombresUsuario(
+                lote.stream().map(c -> c.solicitud().getNombreUsuario()).toList()));
+        List<String> correos = lote.stream().map(c -> c.solicitud().getCorreo()).filter(c -> c != null).toList();
+        Set<String> correosExistentes = correos.isEmpty() ? Set.of() : new HashSet<>(usuarioRepository.findExistingCorreos(correos));
+
+        List<AuthDtos.RegisterRequestDto> nuevos = new ArrayList<>();
+        for (Candidato candidato : lote) {
+            AuthDtos.RegisterRequestDto solicitud = candidato.solicitud();
+            if (nombresExistentes.contains(solicitud.getNombreUsuario())) {
+                errores.add("Fila " + candidato.fila() + ": el nombre de usuario ya está en uso: " + solicitud.getNombreUsuario());
+            } else if (solicitud.getCorreo() != null && correosExistentes.contains(solicitud.getCorreo())) {
+                errores.add("Fila " + candidato.fila() + ": el email ya está en uso: " + solicitud.getCorreo());
+            } else {
+                nuevos.add(solicitud);
+            }
+        }
+
+        // Los hash del lote se calculan en el pool de hash, sin ocupar el common pool
+        List<String> hashes = passwordEncoder.encodeAll(nuevos.stream()
+                .map(AuthDtos.RegisterRequestDto::getContraseña)
+                .toList());
+        List<ClienteBulkRepository.NuevoCliente> clientes = new ArrayList<>(nuevos.size());
+        for (int i = 0; i < nuevos.size(); i++) {
+            AuthDtos.RegisterRequestDto solicitud = nuevos.get(i);
+            clientes.add(new ClienteBulkRepository.NuevoCliente(
+                    solicitud.getNombreUsuario(),
+                    solicitud.getCorreo(),
+                    hashes.get(i),
+                    solicitud.getNombre(),
+                    solicitud.getDireccion(),
+                    solicitud.getTelefono(),
+                    solicitud.getTipoMascota()));
+        }
+
+        int insertados = clienteBulkRepository.insertClientes(clientes);
+        clientes.forEach(c -> membershipIndex.add(c.nombreUsuario(), c.correo()));
+        return insertados;
+    }
+
     @Override
     @Transactional(readOnly = true)
     public AuthDtos.UserInfoDto getCurrentUser(Authentication authentication) {
@@ -144,17 +275,12 @@ public class AuthServiceImpl implements AuthService {
 
     @Override
     public AuthDtos.AuthResponseDto refreshToken(AuthDtos.RefreshTokenRequestDto refreshRequest) {
-        String refreshToken = refreshRequest.refreshToken();
-
-        if (!jwtUtils.validateJwtToken(refreshToken) || !jwtUtils.isRefreshToken(refreshToken)) {
-            throw new BadRequestException("Refresh token inválido");
-        }
-
-        if (jwtUtils.isTokenExpired(refreshToken)) {
-            throw new BadRequestException("Refresh token expirado");
-        }
+        // Un solo parseo: firma, expiración y tipo se validan juntos
+        VerifiedJwt refreshToken = jwtUtils.verify(refreshRequest.refreshToken())
+                .filter(VerifiedJwt::isRefreshToken)
+                .orElseThrow(() -> new BadRequestException("Refresh token inválido o expirado"));
 
-        String nombreUsuario = jwtUtils.getUserNameFromJwtToken(refreshToken);
+        String nombreUsuario = refreshToken.subject();
         Usuario usuario = usuarioRepository.findByNombreUsuarioAndEstadoTrue(nombreUsuario)
                 .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado"));
 
@@ -164,7 +290,7 @@ public class AuthServiceImpl implements AuthService {
         );
 
         String newJwt = jwtUtils.generateJwtToken(newAuth);
-        String newRefreshToken = jwtUtils.generateRefreshToken(newAuth);
+        String newRefreshToken = refreshTokenService.rotateRefreshToken(refreshToken, newAuth);
 
         log.debug("Tokens renovados para usuario: {}", nombreUsuario);
 
@@ -182,12 +308,12 @@ public class AuthServiceImpl implements AuthService {
     @Override
     @Transactional(readOnly = true)
     public boolean existsByNombreUsuario(String nombreUsuario) {
-        return usuarioRepository.existsByNombreUsuario(nombreUsuario);
+        return membershipIndex.existsByNombreUsuario(nombreUsuario);
     }
 
     @Override
     @Transactional(readOnly = true)
     public boolean existsByCorreo(String correo) {
-        return usuarioRepository.existsByCorreo(correo);
+        return membershipIndex.existsByCorreo(correo);
     }
 }
\ No newline at end of file
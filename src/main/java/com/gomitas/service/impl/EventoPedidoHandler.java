@@ -0,0 +1,107 @@
+package com.gomitas.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gomitas.dto.EventoPedidoDtos;
+import com.gomitas.entity.Alerta;
+import com.gomitas.entity.DetallePedido;
+import com.gomitas.entity.EventoOutbox;
+import com.gomitas.entity.InventarioProducto;
+import com.gomitas.entity.VentasHistoricas;
+import com.gomitas.enums.PrioridadAlerta;
+import com.gomitas.enums.TipoAlerta;
+import com.gomitas.repository.AlertaRepository;
+import com.gomitas.repository.DetallePedidoRepository;
+import com.gomitas.repository.InventarioProductoRepository;
+import com.gomitas.repository.VentasHistoricasRepository;
+import com.gomitas.service.impl.util.HotStockCounters;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Efectos de los eventos de pedido. Se ejecutan en la misma transacción que marca el evento
+ * como procesado, así un evento reintentado nunca duplica ventas ni alertas.
+ */
+@Component
+@RequiredArgsConstructor
+@Transactional(propagation = Propagation.MANDATORY)
+public class EventoPedidoHandler {
+
+    private final ObjectMapper objectMapper;
+    private final AlertaRepository alertaRepository;
+    private final VentasHistoricasRepository ventasHistoricasRepository;
+    private final DetallePedidoRepository detallePedidoRepository;
+    private final InventarioProductoRepository inventarioProductoRepository;
+    private final HotStockCounters hotStockCounters;
+
+    public void manejar(EventoOutbox evento) {
+        switch (evento.getTipo()) {
+            case PEDIDO_CREADO -> alertarFaltantes(leer(evento, EventoPedidoDtos.PedidoCreado.class));
+            case PEDIDO_DESPACHADO -> alertarStockBajo(leer(evento, EventoPedidoDtos.PedidoDespachado.class));
+            case PEDIDO_ENTREGADO -> registrarVentas(evento.getPedidoId(), leer(evento, EventoPedidoDtos.PedidoEntregado.class));
+        }
+    }
+
+    private void alertarFaltantes(EventoPedidoDtos.PedidoCreado evento) {
+        List<Alerta> alertas = evento.faltantes().stream()
+                .map(faltante -> Alerta.builder()
+                        .tipo(TipoAlerta.NECESIDAD_PRODUCCION)
+                        .mensaje("Stock insuficiente para '" + faltante.nombreProducto() + "'. Se necesitan " + faltante.cantidadFaltante() + " unidades para el pedido.")
+                        .prioridad(PrioridadAlerta.ALTA)
+                        .leida(false)
+                        .build())
+                .toList();
+        alertaRepository.saveAll(alertas);
+    }
+
+    // Avisa en cuanto un despacho deja un producto bajo su mínimo, sin esperar al chequeo horario
+    private void alertarStockBajo(EventoPedidoDtos.PedidoDespachado evento) {
+        List<Alerta> alertas = new ArrayList<>();
+        for (InventarioProducto inventario : inventarioProductoRepository.findByProductoIdInWithProducto(evento.productoIds())) {
+            Long productoId = inventario.getProducto().getProductoId();
+            int disponible = hotStockCounters.saldo(productoId)
+                    .map(HotStockCounters.Saldo::disponible)
+                    .orElse(inventario.getCantidadDisponible());
+            Integer minimo = inventario.getProducto().getStockMinimo();
+            if (minimo != null && disponible < minimo) {
+                alertas.add(Alerta.builder()
+                        .tipo(TipoAlerta.STOCK_BAJO)
+                        .entidadId(productoId)
+                        .entidadTipo("Producto")
+                        .mensaje(String.format("Stock bajo para %s. Cantidad actual: %d, Mínimo: %d",
+                                inventario.getProducto().getNombre(), disponible, minimo))
+                        .prioridad(PrioridadAlerta.ALTA)
+                        .leida(false)
+                        .build());
+            }
+        }
+        alertaRepository.saveAll(alertas);
+    }
+
+    private void registrarVentas(Long pedidoId, EventoPedidoDtos.PedidoEntregado evento) {
+        List<VentasHistoricas> ventas = new ArrayList<>();
+        for (DetallePedido detalle : detallePedidoRepository.findByPedidoIdWithProducto(pedidoId)) {
+            ventas.add(VentasHistoricas.builder()
+                    .producto(detalle.getProducto())
+                    .fechaVenta(evento.fechaVenta())
+                    .cantidadVendida(detalle.getCantidad())
+                    .precioVenta(detalle.getPrecioUnitario())
+                    .pedido(detalle.getPedido())
+                    .build());
+        }
+        ventasHistoricasRepository.saveAll(ventas);
+    }
+
+    private <T> T leer(EventoOutbox evento, Class<T> tipo) {
+        try {
+            return objectMapper.readValue(evento.getPayload(), tipo);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Payload inválido en el evento " + evento.getEventoId(), e);
+        }
+    }
+}
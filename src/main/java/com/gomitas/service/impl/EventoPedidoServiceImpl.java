@@ -0,0 +1,49 @@
+package com.gomitas.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gomitas.entity.EventoOutbox;
+import com.gomitas.enums.TipoEventoPedido;
+import com.gomitas.repository.PedidoBulkRepository;
+import com.gomitas.service.EventoPedidoService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+@Transactional(propagation = Propagation.MANDATORY)
+public class EventoPedidoServiceImpl implements EventoPedidoService {
+
+    private final PedidoBulkRepository pedidoBulkRepository;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void publicar(TipoEventoPedido tipo, Long pedidoId, Object payload) {
+        publicar(tipo, Map.of(pedidoId, payload));
+    }
+
+    @Override
+    public void publicar(TipoEventoPedido tipo, Map<Long, ?> payloadPorPedido) {
+        List<EventoOutbox> eventos = payloadPorPedido.entrySet().stream()
+                .map(e -> EventoOutbox.builder()
+                        .tipo(tipo)
+                        .pedidoId(e.getKey())
+                        .payload(serializar(e.getValue()))
+                        .build())
+                .toList();
+        pedidoBulkRepository.insertEventos(eventos);
+    }
+
+    private String serializar(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el evento de pedido", e);
+        }
+    }
+}
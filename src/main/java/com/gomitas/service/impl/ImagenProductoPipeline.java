@@ -0,0 +1,315 @@
+package com.gomitas.service.impl;
+
+import com.gomitas.entity.Producto;
+import com.gomitas.enums.EstadoImagen;
+import com.gomitas.repository.ProductoRepository;
+import com.gomitas.service.impl.util.CatalogoProductosCache;
+import com.gomitas.service.impl.util.ImagenStorage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sube las imágenes de productos fuera de la transacción y del hilo de la petición.
+ *
+ * El servicio copia la imagen recibida a app.imagenes.stagingDir y guarda el producto con la
+ * imagen en PENDIENTE y la ruta preparada. Al confirmar, la subida se encola en un pool acotado
+ * (app.imagenes.workers, app.imagenes.queueCapacity) que usa el {@link ImagenStorage} configurado;
+ * si tiene éxito actualiza imageUrl, borra la imagen anterior y el archivo preparado.
+ *
+ * Los fallos se reintentan con espera exponencial hasta app.imagenes.maxIntentos; después la
+ * imagen queda FALLIDA. Una revisión periódica encola lo que quedó pendiente (cola llena,
+ * reintentos o reinicio). Los archivos preparados viven en el disco del nodo que recibió la
+ * petición: una réplica ignora las rutas que no existen en su disco.
+ *
+ * Métricas: imagenes.subida (por resultado), imagenes.fallos, imagenes.cola e imagenes.activas.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ImagenProductoPipeline {
+
+    private static final String CARPETA = "gomipets/productos";
+
+    private record Reintento(int intentos, long siguienteIntento) {}
+
+    private record Publicacion(boolean aplicada, String urlAnterior) {}
+
+    private final ProductoRepository productoRepository;
+    private final ImagenStorage imagenStorage;
+    private final CatalogoProductosCache catalogoProductosCache;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.imagenes.stagingDir:${java.io.tmpdir}/gomipets-imagenes}")
+    private String stagingDir;
+
+    @Value("${app.imagenes.workers:2}")
+    private int workers;
+
+    @Value("${app.imagenes.queueCapacity:100}")
+    private int queueCapacity;
+
+    @Value("${app.imagenes.maxIntentos:5}")
+    private int maxIntentos;
+
+    // Rutas encoladas o en curso, para no subir dos veces la misma imagen
+    private final Map<String, Long> enCurso = new ConcurrentHashMap<>();
+    private final Map<String, Reintento> reintentos = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor pool;
+    private Counter fallos;
+    private final Map<String, Timer> subidasPorResultado = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void iniciar() throws IOException {
+        Files.createDirectories(Paths.get(stagingDir));
+        AtomicInteger threadNumber = new AtomicInteger();
+        pool = new ThreadPoolExecutor(
+                workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "imagen-producto-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        fallos = Counter.builder("imagenes.fallos")
+                .description("Intentos de subida de imágenes de productos fallidos")
+                .register(meterRegistry);
+        Gauge.builder("imagenes.cola", pool, p -> p.getQueue().size())
+                .description("Subidas de imágenes esperando en cola")
+                .register(meterRegistry);
+        Gauge.builder("imagenes.activas", pool, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void detener() {
+        pool.shutdown();
+    }
+
+    /**
+     * Copia la imagen recibida al directorio de preparación; si la transacción se revierte, se borra
+     *
+     * @return la ruta del archivo preparado, para guardarla en el producto
+     */
+    public String preparar(MultipartFile imagen) throws IOException {
+        Path destino = Paths.get(stagingDir).resolve(UUID.randomUUID() + extension(imagen.getOriginalFilename()));
+        try (InputStream entrada = imagen.getInputStream()) {
+            Files.copy(entrada, destino, StandardCopyOption.REPLACE_EXISTING);
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        borrarPreparado(destino.toString());
+                    }
+                }
+            });
+        }
+        return destino.toString();
+    }
+
+    /**
+     * Encola la subida cuando confirme la transacción que guardó el producto
+     */
+    public void programar(Long productoId, String ruta) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            encolar(productoId, ruta);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                encolar(productoId, ruta);
+            }
+        });
+    }
+
+    /**
+     * Al confirmar, borra una imagen preparada que fue reemplazada antes de subirse.
+     * Si justo se está subiendo, la subida detecta el reemplazo y limpia por su cuenta.
+     */
+    public void descartar(String ruta) {
+        Runnable limpiar = () -> {
+            reintentos.remove(ruta);
+            if (!enCurso.containsKey(ruta)) {
+                borrarPreparado(ruta);
+            }
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            limpiar.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                limpiar.run();
+            }
+        });
+    }
+
+    /**
+     * Encola las imágenes pendientes cuyo reintento ya venció (tras un reinicio, cola llena o fallo)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.imagenes.revisionMs:30000}", initialDelayString = "${app.imagenes.revisionMs:30000}")
+    public void revisarPendientes() {
+        long ahora = System.currentTimeMillis();
+        for (Producto producto : productoRepository.findByEstadoImagen(EstadoImagen.PENDIENTE)) {
+            String ruta = producto.getImagenPendiente();
+            if (ruta == null || !Files.exists(Paths.get(ruta))) {
+                continue;
+            }
+            Reintento reintento = reintentos.get(ruta);
+            if (reintento == null || reintento.siguienteIntento() <= ahora) {
+                encolar(producto.getProductoId(), ruta);
+            }
+        }
+    }
+
+    private void encolar(Long productoId, String ruta) {
+        if (enCurso.putIfAbsent(ruta, productoId) != null) {
+            return;
+        }
+        try {
+            pool.execute(() -> {
+                try {
+                    subir(productoId, ruta);
+                } finally {
+                    enCurso.remove(ruta);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            enCurso.remove(ruta);
+            log.warn("Cola de imágenes llena; la imagen del producto {} se subirá en la próxima revisión", productoId);
+        }
+    }
+
+    private void subir(Long productoId, String ruta) {
+        Timer.Sample muestra = Timer.start(meterRegistry);
+        String resultado = "ok";
+        try {
+            String url = imagenStorage.subir(Paths.get(ruta), CARPETA);
+            Publicacion publicacion = transactionTemplate.execute(status -> publicar(productoId, ruta, url));
+            if (publicacion == null || !publicacion.aplicada()) {
+                // Llegó otra imagen mientras se subía esta: la subida quedó huérfana
+                resultado = "reemplazada";
+                eliminar(url);
+            } else if (publicacion.urlAnterior() != null && !publicacion.urlAnterior().isEmpty()) {
+                eliminar(publicacion.urlAnterior());
+            }
+            reintentos.remove(ruta);
+            borrarPreparado(ruta);
+        } catch (IOException | RuntimeException e) {
+            resultado = "error";
+            registrarFallo(productoId, ruta, e);
+        } finally {
+            muestra.stop(subidasPorResultado.computeIfAbsent(resultado, r -> Timer.builder("imagenes.subida")
+                    .description("Duración de la subida de una imagen de producto")
+                    .tag("resultado", r)
+                    .register(meterRegistry)));
+        }
+    }
+
+    /**
+     * Aplica la URL si la imagen sigue siendo la última enviada para el producto
+     */
+    private Publicacion publicar(Long productoId, String ruta, String url) {
+        Optional<Producto> encontrado = productoRepository.findByIdForUpdate(productoId);
+        if (encontrado.isEmpty() || !ruta.equals(encontrado.get().getImagenPendiente())) {
+            return new Publicacion(false, null);
+        }
+        Producto producto = encontrado.get();
+        String anterior = producto.getImageUrl();
+        producto.setImageUrl(url);
+        producto.setEstadoImagen(EstadoImagen.LISTA);
+        producto.setImagenPendiente(null);
+        productoRepository.save(producto);
+        catalogoProductosCache.recargarAlConfirmar();
+        return new Publicacion(true, anterior);
+    }
+
+    private void registrarFallo(Long productoId, String ruta, Exception error) {
+        fallos.increment();
+        if (!Files.exists(Paths.get(ruta))) {
+            // El archivo preparado se descartó porque llegó otra imagen
+            reintentos.remove(ruta);
+            return;
+        }
+        int intentos = reintentos.getOrDefault(ruta, new Reintento(0, 0)).intentos() + 1;
+        if (intentos < maxIntentos) {
+            long espera = Duration.ofSeconds(1L << Math.min(intentos, 10)).toMillis();
+            reintentos.put(ruta, new Reintento(intentos, System.currentTimeMillis() + espera));
+            log.warn("Falló la subida de la imagen del producto {} (intento {}): {}", productoId, intentos, error.getMessage());
+            return;
+        }
+        log.error("Se descarta la imagen del producto {} tras {} intentos", productoId, intentos, error);
+        reintentos.remove(ruta);
+        transactionTemplate.executeWithoutResult(status -> {
+            if (productoRepository.marcarImagenFallida(productoId, ruta) > 0) {
+                catalogoProductosCache.recargarAlConfirmar();
+            }
+        });
+        borrarPreparado(ruta);
+    }
+
+    // La imagen anterior o una subida huérfana; si no se puede borrar solo queda ocupando espacio
+    private void eliminar(String url) {
+        try {
+            imagenStorage.eliminar(url);
+        } catch (IOException | RuntimeException e) {
+            log.warn("No se pudo eliminar la imagen {}: {}", url, e.getMessage());
+        }
+    }
+
+    private void borrarPreparado(String ruta) {
+        try {
+            Files.deleteIfExists(Paths.get(ruta));
+        } catch (IOException e) {
+            log.warn("No se pudo borrar el archivo preparado {}: {}", ruta, e.getMessage());
+        }
+    }
+
+    private static String extension(String nombreOriginal) {
+        if (nombreOriginal == null) {
+            return "";
+        }
+        int punto = nombreOriginal.lastIndexOf('.');
+        String extension = punto >= 0 ? nombreOriginal.substring(punto).toLowerCase() : "";
+        return extension.matches("\\.[a-z0-9]{1,5}") ? extension : "";
+    }
+}
@@ -7,6 +7,7 @@ import com.gomitas.exception.ResourceNotFoundException;
 import com.gomitas.repository.InsumoRepository;
 import com.gomitas.repository.LoteInsumoRepository;
 import com.gomitas.service.InsumoService;
+import com.gomitas.service.impl.util.RecetaCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -23,6 +24,7 @@ public class InsumoServiceImpl implements InsumoService {
 
     private final InsumoRepository insumoRepository;
     private final LoteInsumoRepository loteInsumoRepository;
+    private final RecetaCache recetaCache;
 
     @Override
     @Transactional(readOnly = true)
@@ -82,6 +84,7 @@ public class InsumoServiceImpl implements InsumoService {
         insumo.setEstado(insumoDto.estado());
 
         insumoRepository.save(insumo);
+        recetaCache.invalidarTodoAlConfirmar();
         return mapToDto(insumo);
     }
 
@@ -248,6 +248,7 @@ public class InteligenciaServiceImpl implements InteligenciaService {
 
         BigDecimal porcentajeAcumulado = BigDecimal.ZERO;
         List<AnalisisDtos.AbcResponseDto> resultado = new java.util.ArrayList<>();
+        List<ClasificacionAbc> clasificaciones = new java.util.ArrayList<>();
 
         for (Map.Entry<Producto, BigDecimal> entry : productosOrdenados) {
             Producto producto = entry.getKey();
@@ -265,7 +266,7 @@ public class InteligenciaServiceImpl implements InteligenciaService {
                 categoria = CategoriaABC.C;
             }
 
-            abcRepository.save(ClasificacionAbc.builder()
+            clasificaciones.add(ClasificacionAbc.builder()
                     .producto(producto)
                     .valorVentasAnuales(valorVentas)
                     .categoria(categoria)
@@ -273,6 +274,7 @@ public class InteligenciaServiceImpl implements InteligenciaService {
 
             resultado.add(new AnalisisDtos.AbcResponseDto(producto.getProductoId(), producto.getNombre(), valorVentas, categoria));
         }
+        abcRepository.saveAll(clasificaciones);
 
         return resultado;
     }
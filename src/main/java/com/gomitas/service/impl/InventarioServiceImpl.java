@@ -14,6 +14,8 @@ import com.gomitas.repository.ProductoRepository;
 import com.gomitas.repository.UsuarioRepository;
 import com.gomitas.security.UserDetailsImpl;
 import com.gomitas.service.InventarioService;
+import com.gomitas.service.impl.util.HotStockCounters;
+import com.gomitas.service.impl.util.StockMutationEngine;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
@@ -30,6 +32,8 @@ public class InventarioServiceImpl implements InventarioService {
     private final MovimientoInventarioRepository movimientoRepository;
     private final ProductoRepository productoRepository;
     private final UsuarioRepository usuarioRepository;
+    private final StockMutationEngine stockMutationEngine;
+    private final HotStockCounters hotStockCounters;
 
     @Override
     @Transactional(readOnly = true)
@@ -59,26 +63,33 @@ public class InventarioServiceImpl implements InventarioService {
         Producto producto = productoRepository.findById(movimientoDto.productoId())
                 .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado con id: " + movimientoDto.productoId()));
 
-        InventarioProducto inventario = inventarioRepository.findByProducto(producto)
-                .orElseThrow(() -> new ResourceNotFoundException("Inventario no encontrado para el producto."));
+        if (!inventarioRepository.existsByProducto_ProductoId(producto.getProductoId())) {
+            throw new ResourceNotFoundException("Inventario no encontrado para el producto.");
+        }
 
-        Integer cantidadAnterior = inventario.getCantidadDisponible();
+        // El cambio se aplica en la base de datos de forma atómica, sin leer y guardar la entidad
+        Integer cantidadAnterior;
         Integer cantidadNueva;
 
         if (movimientoDto.tipoMovimiento() == TipoMovimientoInventario.ENTRADA) {
-            cantidadNueva = cantidadAnterior + movimientoDto.cantidad();
+            cantidadNueva = stockMutationEngine.incrementar(producto.getProductoId(), movimientoDto.cantidad());
+            cantidadAnterior = cantidadNueva - movimientoDto.cantidad();
         } else if (movimientoDto.tipoMovimiento() == TipoMovimientoInventario.SALIDA) {
-            if (cantidadAnterior < movimientoDto.cantidad()) {
+            StockMutationEngine.Resultado resultado = stockMutationEngine.decrementar(
+                    List.of(new StockMutationEngine.Linea(producto.getProductoId(), movimientoDto.cantidad())));
+            if (!resultado.exitoso()) {
                 throw new BadRequestException("No hay suficiente stock para realizar la salida.");
             }
-            cantidadNueva = cantidadAnterior - movimientoDto.cantidad();
+            // En productos hot, el saldo que dejó este descuento; la fila de los demás sigue bloqueada por el UPDATE
+            cantidadNueva = resultado.disponibleHot().containsKey(producto.getProductoId())
+                    ? resultado.disponibleHot().get(producto.getProductoId())
+                    : stockMutationEngine.cantidadDisponible(producto.getProductoId());
+            cantidadAnterior = cantidadNueva + movimientoDto.cantidad();
         } else { // AJUSTE
+            cantidadAnterior = stockMutationEngine.ajustar(producto.getProductoId(), movimientoDto.cantidad());
             cantidadNueva = movimientoDto.cantidad();
         }
 
-        inventario.setCantidadDisponible(cantidadNueva);
-        inventarioRepository.save(inventario);
-
         MovimientoInventario movimiento = MovimientoInventario.builder()
                 .producto(producto)
                 .tipoMovimiento(movimientoDto.tipoMovimiento())
@@ -87,6 +98,8 @@ public class InventarioServiceImpl implements InventarioService {
                 .cantidadNueva(cantidadNueva)
                 .motivo(movimientoDto.motivo())
                 .usuario(usuario)
+                // En productos hot el saldo de la tabla se actualiza después, al volcar los pendientes
+                .aplicado(!stockMutationEngine.esHot(producto.getProductoId()))
                 .build();
 
         MovimientoInventario savedMovimiento = movimientoRepository.save(movimiento);
@@ -109,15 +122,23 @@ public class InventarioServiceImpl implements InventarioService {
                 .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado con id: " + productoId));
         InventarioProducto inventario = inventarioRepository.findByProducto(producto)
                 .orElseThrow(() -> new ResourceNotFoundException("Inventario no encontrado para el producto con id: " + productoId));
-        return inventario.getCantidadDisponible() >= cantidadRequerida;
+        int disponibleParaPrometer = hotStockCounters.saldo(productoId)
+                .map(saldo -> saldo.disponible() - saldo.reservada())
+                .orElse(inventario.getDisponibleParaPrometer());
+        return disponibleParaPrometer >= cantidadRequerida;
     }
 
     private InventarioDtos.InventarioResponseDto mapToInventarioDto(InventarioProducto inventario) {
+        // Los productos hot tienen el saldo vigente en memoria; la tabla puede ir un volcado atrás
+        HotStockCounters.Saldo saldo = hotStockCounters.saldo(inventario.getProducto().getProductoId())
+                .orElse(new HotStockCounters.Saldo(inventario.getCantidadDisponible(), inventario.getCantidadReservada()));
         return new InventarioDtos.InventarioResponseDto(
                 inventario.getInventarioId(),
                 inventario.getProducto().getProductoId(),
                 inventario.getProducto().getNombre(),
-                inventario.getCantidadDisponible(),
+                saldo.disponible(),
+                saldo.reservada(),
+                saldo.disponible() - saldo.reservada(),
                 inventario.getFechaActualizacion()
         );
     }
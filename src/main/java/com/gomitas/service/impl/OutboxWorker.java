@@ -0,0 +1,176 @@
+package com.gomitas.service.impl;
+
+import com.gomitas.entity.EventoOutbox;
+import com.gomitas.repository.EventoOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Procesa los eventos del outbox en segundo plano.
+ *
+ * Cada ronda toma un lote de eventos pendientes con FOR UPDATE SKIP LOCKED y los aparta por un
+ * plazo (app.outbox.leaseSeconds); luego cada evento se procesa en su propia transacción, junto con
+ * la marca de procesado. Si un evento falla se reintenta con espera exponencial hasta
+ * app.outbox.maxIntentos; si el proceso muere, los eventos apartados vuelven a quedar
+ * disponibles al vencer el plazo.
+ *
+ * Métricas: outbox.pendientes, outbox.lag.segundos (antigüedad del evento pendiente más viejo),
+ * outbox.procesamiento y outbox.fallos por tipo de evento.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutboxWorker {
+
+    private final EventoOutboxRepository eventoOutboxRepository;
+    private final EventoPedidoHandler eventoPedidoHandler;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.outbox.workers:4}")
+    private int workers;
+
+    @Value("${app.outbox.batchSize:100}")
+    private int batchSize;
+
+    @Value("${app.outbox.leaseSeconds:60}")
+    private long leaseSeconds;
+
+    @Value("${app.outbox.maxIntentos:10}")
+    private int maxIntentos;
+
+    private final AtomicLong pendientes = new AtomicLong();
+    private final AtomicLong lagSegundos = new AtomicLong();
+    private final Map<String, Timer> timersPorTipo = new ConcurrentHashMap<>();
+    private final Map<String, Counter> fallosPorTipo = new ConcurrentHashMap<>();
+    private ExecutorService pool;
+
+    @PostConstruct
+    void iniciar() {
+        pool = Executors.newFixedThreadPool(workers);
+        Gauge.builder("outbox.pendientes", pendientes, AtomicLong::get)
+                .description("Eventos del outbox pendientes de procesar")
+                .register(meterRegistry);
+        Gauge.builder("outbox.lag.segundos", lagSegundos, AtomicLong::get)
+                .description("Antigüedad del evento pendiente más viejo")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void detener() {
+        pool.shutdown();
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.pollMs:500}")
+    public void drenar() {
+        List<EventoOutbox> lote;
+        do {
+            lote = tomarLote();
+            procesar(lote);
+        } while (lote.size() == batchSize);
+        actualizarLag();
+    }
+
+    private List<EventoOutbox> tomarLote() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime ahora = LocalDateTime.now();
+            List<Long> ids = eventoOutboxRepository.bloquearPendientes(ahora, batchSize);
+            if (ids.isEmpty()) {
+                return List.of();
+            }
+            eventoOutboxRepository.reservarHasta(ids, ahora.plusSeconds(leaseSeconds));
+            return eventoOutboxRepository.findAllById(ids);
+        });
+    }
+
+    private void procesar(List<EventoOutbox> lote) {
+        List<Future<?>> tareas = lote.stream()
+                .<Future<?>>map(evento -> pool.submit(() -> procesar(evento)))
+                .toList();
+        for (Future<?> tarea : tareas) {
+            try {
+                tarea.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                log.error("Error inesperado en el worker del outbox", e.getCause());
+            }
+        }
+    }
+
+    private void procesar(EventoOutbox evento) {
+        Timer.Sample muestra = Timer.start(meterRegistry);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // Si otro worker ya lo procesó tras vencer el plazo, no se repiten los efectos
+                if (eventoOutboxRepository.marcarProcesado(evento.getEventoId(), LocalDateTime.now()) == 0) {
+                    return;
+                }
+                eventoPedidoHandler.manejar(evento);
+            });
+        } catch (RuntimeException e) {
+            registrarFallo(evento, e);
+        } finally {
+            muestra.stop(timersPorTipo.computeIfAbsent(evento.getTipo().name(), tipo -> Timer.builder("outbox.procesamiento")
+                    .description("Duración del procesamiento de un evento del outbox")
+                    .tag("tipo", tipo)
+                    .register(meterRegistry)));
+        }
+    }
+
+    private void registrarFallo(EventoOutbox evento, RuntimeException error) {
+        fallosPorTipo.computeIfAbsent(evento.getTipo().name(), tipo -> Counter.builder("outbox.fallos")
+                .description("Eventos del outbox que fallaron al procesarse")
+                .tag("tipo", tipo)
+                .register(meterRegistry)).increment();
+
+        int intentos = evento.getIntentos() + 1;
+        boolean agotado = intentos >= maxIntentos;
+        transactionTemplate.executeWithoutResult(status -> eventoOutboxRepository.findById(evento.getEventoId()).ifPresent(e -> {
+            e.setIntentos(intentos);
+            e.setUltimoError(error.getMessage());
+            // Espera exponencial: 2, 4, 8... segundos, con tope de una hora
+            e.setSiguienteIntento(agotado ? null : LocalDateTime.now().plus(espera(intentos)));
+            eventoOutboxRepository.save(e);
+        }));
+
+        if (agotado) {
+            log.error("Evento {} ({}) del pedido {} descartado tras {} intentos", evento.getEventoId(), evento.getTipo(), evento.getPedidoId(), intentos, error);
+        } else {
+            log.warn("Evento {} ({}) falló en el intento {}: {}", evento.getEventoId(), evento.getTipo(), intentos, error.getMessage());
+        }
+    }
+
+    private void actualizarLag() {
+        pendientes.set(eventoOutboxRepository.countPendientes());
+        lagSegundos.set(eventoOutboxRepository.findFechaPendienteMasAntigua()
+                .map(fecha -> Math.max(0, Duration.between(fecha, LocalDateTime.now()).toSeconds()))
+                .orElse(0L));
+    }
+
+    private static Duration espera(int intentos) {
+        return Duration.ofSeconds(Math.min(3600L, 1L << Math.min(intentos, 12)));
+    }
+}
@@ -0,0 +1,359 @@
+package com.gomitas.service.impl;
+
+import com.gomitas.dto.EventoPedidoDtos;
+import com.gomitas.dto.PedidoDtos;
+import com.gomitas.entity.Cliente;
+import com.gomitas.entity.DetallePedido;
+import com.gomitas.entity.InventarioProducto;
+import com.gomitas.entity.Pedido;
+import com.gomitas.entity.Producto;
+import com.gomitas.enums.EstadoPedido;
+import com.gomitas.enums.TipoEventoPedido;
+import com.gomitas.exception.BadRequestException;
+import com.gomitas.repository.ClienteRepository;
+import com.gomitas.repository.DetallePedidoRepository;
+import com.gomitas.repository.InventarioProductoRepository;
+import com.gomitas.repository.PedidoBulkRepository;
+import com.gomitas.repository.PedidoRepository;
+import com.gomitas.repository.ProductoRepository;
+import com.gomitas.service.EventoPedidoService;
+import com.gomitas.service.PedidoImportacionService;
+import com.gomitas.service.ReservaStockService;
+import com.gomitas.service.impl.util.PedidoEstadoCounters;
+import com.gomitas.service.impl.util.StockMutationEngine;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Importación de pedidos mayoristas desde CSV.
+ *
+ * El archivo se lee registro por registro; en memoria solo están el catálogo de productos
+ * vendibles, el lote de pedidos en curso y los primeros errores. Cada lote de pedidos
+ * (app.pedidos.importacion.chunkSize) se guarda en su propia transacción: pedidos y detalles en
+ * batch, reservas de stock, estado y eventos igual que en el checkout. Si un lote falla, solo se
+ * rechazan sus pedidos y la importación continúa.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PedidoImportacionServiceImpl implements PedidoImportacionService {
+
+    private static final CSVFormat FORMATO = CSVFormat.DEFAULT.builder()
+            .setHeader()
+            .setSkipHeaderRecord(true)
+            .setIgnoreHeaderCase(true)
+            .setIgnoreEmptyLines(true)
+            .setTrim(true)
+            .build();
+
+    private static final List<String> COLUMNAS_REQUERIDAS = List.of("cliente_id", "producto_id", "cantidad");
+
+    private final ProductoRepository productoRepository;
+    private final ClienteRepository clienteRepository;
+    private final InventarioProductoRepository inventarioProductoRepository;
+    private final PedidoRepository pedidoRepository;
+    private final PedidoBulkRepository pedidoBulkRepository;
+    private final DetallePedidoRepository detallePedidoRepository;
+    private final ReservaStockService reservaStockService;
+    private final EventoPedidoService eventoPedidoService;
+    private final PedidoEstadoCounters pedidoEstadoCounters;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+
+    @Value("${app.pedidos.importacion.chunkSize:200}")
+    private int chunkSize;
+
+    @Value("${app.pedidos.importacion.maxErrores:1000}")
+    private int maxErrores;
+
+    private record LineaImportada(long linea, Long productoId, int cantidad) {}
+
+    private static final class PedidoImportado {
+        private final Long clienteId;
+        private final String referencia;
+        private final String metodoPago;
+        private final String observaciones;
+        private final long primeraLinea;
+        private final List<LineaImportada> lineas = new ArrayList<>();
+        private boolean valido = true;
+
+        private PedidoImportado(Long clienteId, String referencia, String metodoPago, String observaciones, long primeraLinea) {
+            this.clienteId = clienteId;
+            this.referencia = referencia;
+            this.metodoPago = metodoPago;
+            this.observaciones = observaciones;
+            this.primeraLinea = primeraLinea;
+        }
+
+        private boolean esMismo(Long otroClienteId, String otraReferencia) {
+            return clienteId.equals(otroClienteId) && referencia.equals(otraReferencia);
+        }
+    }
+
+    // Totales y errores de una importación en curso
+    private final class Resumen {
+        private long lineasLeidas;
+        private long lineasImportadas;
+        private int pedidosCreados;
+        private int pedidosRechazados;
+        private long totalErrores;
+        private final List<PedidoDtos.ErrorImportacionDto> errores = new ArrayList<>();
+
+        private void error(long linea, String mensaje) {
+            totalErrores++;
+            if (errores.size() < maxErrores) {
+                errores.add(new PedidoDtos.ErrorImportacionDto(linea, mensaje));
+            }
+        }
+
+        private PedidoDtos.ImportacionPedidosResponseDto aDto() {
+            return new PedidoDtos.ImportacionPedidosResponseDto(
+                    lineasLeidas, lineasImportadas, pedidosCreados, pedidosRechazados, totalErrores, errores);
+        }
+    }
+
+    @Override
+    public PedidoDtos.ImportacionPedidosResponseDto importarCsv(MultipartFile archivo) throws IOException {
+        if (archivo == null || archivo.isEmpty()) {
+            throw new BadRequestException("El archivo de pedidos está vacío.");
+        }
+
+        Map<Long, ProductoRepository.ProductoVendible> productos = productoRepository.findVendibles().stream()
+                .collect(Collectors.toMap(ProductoRepository.ProductoVendible::getProductoId, Function.identity()));
+        Resumen resumen = new Resumen();
+
+        try (Reader reader = new BufferedReader(new InputStreamReader(archivo.getInputStream(), StandardCharsets.UTF_8));
+             CSVParser parser = FORMATO.parse(reader)) {
+            validarEncabezado(parser.getHeaderNames());
+
+            List<PedidoImportado> lote = new ArrayList<>();
+            PedidoImportado actual = null;
+            for (CSVRecord registro : parser) {
+                long linea = parser.getCurrentLineNumber();
+                resumen.lineasLeidas++;
+
+                Long clienteId = aLong(registro.get("cliente_id"));
+                if (clienteId == null) {
+                    resumen.error(linea, "cliente_id inválido: '" + registro.get("cliente_id") + "'");
+                    continue;
+                }
+                String referencia = valor(registro, "referencia", "");
+                if (actual == null || !actual.esMismo(clienteId, referencia)) {
+                    cerrarPedido(actual, lote, productos, resumen);
+                    actual = new PedidoImportado(clienteId, referencia,
+                            valor(registro, "metodo_pago", null), valor(registro, "observaciones", null), linea);
+                }
+
+                Long productoId = aLong(registro.get("producto_id"));
+                Long cantidad = aLong(registro.get("cantidad"));
+                if (productoId == null || !productos.containsKey(productoId)) {
+                    resumen.error(linea, "Producto no encontrado o sin inventario: '" + registro.get("producto_id") + "'");
+                    actual.valido = false;
+                } else if (cantidad == null || cantidad <= 0 || cantidad > Integer.MAX_VALUE) {
+                    resumen.error(linea, "La cantidad debe ser un entero mayor que cero: '" + registro.get("cantidad") + "'");
+                    actual.valido = false;
+                } else {
+                    actual.lineas.add(new LineaImportada(linea, productoId, cantidad.intValue()));
+                }
+            }
+            cerrarPedido(actual, lote, productos, resumen);
+            guardarLote(lote, productos, resumen);
+        }
+
+        log.info("Importación de pedidos: {} líneas leídas, {} pedidos creados, {} rechazados",
+                resumen.lineasLeidas, resumen.pedidosCreados, resumen.pedidosRechazados);
+        return resumen.aDto();
+    }
+
+    private void validarEncabezado(List<String> encabezado) {
+        Set<String> columnas = encabezado.stream().map(String::toLowerCase).collect(Collectors.toSet());
+        List<String> faltantes = COLUMNAS_REQUERIDAS.stream().filter(c -> !columnas.contains(c)).toList();
+        if (!faltantes.isEmpty()) {
+            throw new BadRequestException("Faltan columnas en el CSV: " + String.join(", ", faltantes));
+        }
+    }
+
+    // Un pedido con alguna línea inválida se rechaza completo; sus errores ya quedaron registrados
+    private void cerrarPedido(PedidoImportado pedido, List<PedidoImportado> lote,
+                              Map<Long, ProductoRepository.ProductoVendible> productos, Resumen resumen) {
+        if (pedido == null) {
+            return;
+        }
+        if (!pedido.valido || pedido.lineas.isEmpty()) {
+            resumen.pedidosRechazados++;
+            return;
+        }
+        lote.add(pedido);
+        if (lote.size() >= chunkSize) {
+            guardarLote(lote, productos, resumen);
+        }
+    }
+
+    private void guardarLote(List<PedidoImportado> lote, Map<Long, ProductoRepository.ProductoVendible> productos, Resumen resumen) {
+        if (lote.isEmpty()) {
+            return;
+        }
+        Set<Long> clientesExistentes = new HashSet<>(clienteRepository.findIdsExistentes(
+                lote.stream().map(p -> p.clienteId).collect(Collectors.toSet())));
+
+        List<PedidoImportado> validos = new ArrayList<>();
+        for (PedidoImportado pedido : lote) {
+            if (clientesExistentes.contains(pedido.clienteId)) {
+                validos.add(pedido);
+            } else {
+                resumen.error(pedido.primeraLinea, "Cliente no encontrado con id: " + pedido.clienteId);
+                resumen.pedidosRechazados++;
+            }
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> persistir(validos, productos));
+            resumen.pedidosCreados += validos.size();
+            resumen.lineasImportadas += validos.stream().mapToLong(p -> p.lineas.size()).sum();
+        } catch (RuntimeException e) {
+            log.warn("No se pudo guardar un lote de {} pedidos importados: {}", validos.size(), e.getMessage());
+            for (PedidoImportado pedido : validos) {
+                resumen.error(pedido.primeraLinea, "No se pudo guardar el pedido: " + e.getMessage());
+            }
+            resumen.pedidosRechazados += validos.size();
+        }
+        lote.clear();
+    }
+
+    private void persistir(List<PedidoImportado> importados, Map<Long, ProductoRepository.ProductoVendible> productos) {
+        if (importados.isEmpty()) {
+            return;
+        }
+        // Bloquear de entrada el inventario de todo el lote en orden de productoId: las reservas de
+        // pedidos distintos tocan productos en otro orden y podrían cruzarse con el checkout
+        Set<Long> productoIds = importados.stream()
+                .flatMap(p -> p.lineas.stream())
+                .map(LineaImportada::productoId)
+                .collect(Collectors.toCollection(TreeSet::new));
+        Map<Long, Integer> disponibleParaPrometer = new HashMap<>();
+        for (InventarioProducto inventario : inventarioProductoRepository.findByProductoIdInForUpdate(productoIds)) {
+            disponibleParaPrometer.put(inventario.getProducto().getProductoId(), inventario.getDisponibleParaPrometer());
+        }
+
+        // 1. Pedidos en un batch JDBC (IDENTITY) y detalles en batch de Hibernate (secuencia)
+        LocalDate hoy = LocalDate.now();
+        List<Pedido> pedidos = new ArrayList<>();
+        for (PedidoImportado importado : importados) {
+            BigDecimal total = importado.lineas.stream()
+                    .map(l -> productos.get(l.productoId()).getPrecioUnitario().multiply(BigDecimal.valueOf(l.cantidad())))
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            pedidos.add(Pedido.builder()
+                    .cliente(entityManager.getReference(Cliente.class, importado.clienteId))
+                    .fechaPedido(hoy)
+                    .estado(EstadoPedido.PENDIENTE)
+                    .metodoPago(importado.metodoPago)
+                    .observaciones(importado.observaciones)
+                    .total(total)
+                    .build());
+        }
+        pedidoBulkRepository.insertPedidos(pedidos);
+
+        List<DetallePedido> detalles = new ArrayList<>();
+        for (int i = 0; i < importados.size(); i++) {
+            Pedido pedido = entityManager.getReference(Pedido.class, pedidos.get(i).getPedidoId());
+            for (LineaImportada linea : importados.get(i).lineas) {
+                BigDecimal precio = productos.get(linea.productoId()).getPrecioUnitario();
+                detalles.add(DetallePedido.builder()
+                        .pedido(pedido)
+                        .producto(entityManager.getReference(Producto.class, linea.productoId()))
+                        .cantidad(linea.cantidad())
+                        .precioUnitario(precio)
+                        .subtotal(precio.multiply(BigDecimal.valueOf(linea.cantidad())))
+                        .build());
+            }
+        }
+        detallePedidoRepository.saveAll(detalles);
+
+        // 2. Reservas como en el checkout; lo que no alcanza deja el pedido pendiente por stock
+        Map<Long, EventoPedidoDtos.PedidoCreado> eventos = new HashMap<>();
+        List<Long> sinStock = new ArrayList<>();
+        for (int i = 0; i < importados.size(); i++) {
+            Pedido pedido = entityManager.getReference(Pedido.class, pedidos.get(i).getPedidoId());
+            List<StockMutationEngine.Linea> sinReserva = reservaStockService.reservar(pedido, importados.get(i).lineas.stream()
+                    .map(l -> new StockMutationEngine.Linea(l.productoId(), l.cantidad()))
+                    .toList());
+
+            List<EventoPedidoDtos.FaltanteStock> faltantes = sinReserva.stream()
+                    .map(l -> new EventoPedidoDtos.FaltanteStock(l.productoId(), productos.get(l.productoId()).getNombre(),
+                            Math.max(0, l.cantidad() - Math.max(0, Objects.requireNonNullElse(disponibleParaPrometer.get(l.productoId()), 0)))))
+                    .toList();
+
+            // Lo reservado por este pedido ya no está disponible para los siguientes pedidos del lote
+            Set<Long> productosSinReserva = sinReserva.stream()
+                    .map(StockMutationEngine.Linea::productoId)
+                    .collect(Collectors.toSet());
+            for (LineaImportada linea : importados.get(i).lineas) {
+                if (!productosSinReserva.contains(linea.productoId())) {
+                    disponibleParaPrometer.merge(linea.productoId(), -linea.cantidad(), Integer::sum);
+                }
+            }
+            if (!faltantes.isEmpty()) {
+                sinStock.add(pedido.getPedidoId());
+            }
+            eventos.put(pedido.getPedidoId(), new EventoPedidoDtos.PedidoCreado(faltantes));
+        }
+        if (!sinStock.isEmpty()) {
+            pedidoRepository.updateEstado(sinStock, EstadoPedido.PENDIENTE_POR_STOCK, Set.of(EstadoPedido.PENDIENTE));
+        }
+        eventoPedidoService.publicar(TipoEventoPedido.PEDIDO_CREADO, eventos);
+
+        int pendientesPorStock = sinStock.size();
+        for (int i = 0; i < importados.size() - pendientesPorStock; i++) {
+            pedidoEstadoCounters.registrarAlta(EstadoPedido.PENDIENTE);
+        }
+        for (int i = 0; i < pendientesPorStock; i++) {
+            pedidoEstadoCounters.registrarAlta(EstadoPedido.PENDIENTE_POR_STOCK);
+        }
+
+        // Los detalles ya se escribieron; se sueltan para que la memoria no crezca con la importación
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private static String valor(CSVRecord registro, String columna, String porDefecto) {
+        if (!registro.isMapped(columna)) {
+            return porDefecto;
+        }
+        String valor = registro.get(columna);
+        return valor == null || valor.isEmpty() ? porDefecto : valor;
+    }
+
+    private static Long aLong(String valor) {
+        try {
+            return Long.parseLong(valor);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -1,24 +1,40 @@
 package com.gomitas.service.impl;
 
+import com.gomitas.dto.EventoPedidoDtos;
 import com.gomitas.dto.PedidoDtos;
 import com.gomitas.entity.*;
-import com.gomitas.enums.PrioridadAlerta;
-import com.gomitas.enums.TipoAlerta;
+import com.gomitas.enums.EstadoPedido;
+import com.gomitas.enums.TipoEventoPedido;
+import com.gomitas.enums.TipoMovimientoInventario;
 import com.gomitas.exception.BadRequestException;
 import com.gomitas.exception.ResourceNotFoundException;
 import com.gomitas.repository.*;
 import com.gomitas.security.UserDetailsImpl;
+import com.gomitas.service.EventoPedidoService;
 import com.gomitas.service.PedidoService;
+import com.gomitas.service.ReservaStockService;
+import com.gomitas.service.impl.util.HotStockCounters;
+import com.gomitas.service.impl.util.PedidoEstadoCounters;
+import com.gomitas.service.impl.util.StockMutationEngine;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,9 +44,17 @@ public class PedidoServiceImpl implements PedidoService {
     private final PedidoRepository pedidoRepository;
     private final ClienteRepository clienteRepository;
     private final ProductoRepository productoRepository;
-    private final VentasHistoricasRepository ventasHistoricasRepository;
     private final InventarioProductoRepository inventarioProductoRepository;
-    private final AlertaRepository alertaRepository;
+    private final StockMutationEngine stockMutationEngine;
+    private final ReservaStockService reservaStockService;
+    private final MovimientoInventarioRepository movimientoInventarioRepository;
+    private final HotStockCounters hotStockCounters;
+    private final PedidoLecturaRepository pedidoLecturaRepository;
+    private final PedidoEstadoCounters pedidoEstadoCounters;
+    private final EventoPedidoService eventoPedidoService;
+
+    @Value("${app.pedidos.pageSize:50}")
+    private int tamanoPagina;
 
     @Override
     @Transactional
@@ -39,151 +63,427 @@ public class PedidoServiceImpl implements PedidoService {
         Cliente cliente = clienteRepository.findByUsuarioIdWithUsuario(userDetails.getUsuarioId())
                 .orElseThrow(() -> new ResourceNotFoundException("Cliente no encontrado para el usuario autenticado."));
 
-        String estadoPedido = "Pendiente";
+        // 1. Cargar productos e inventarios de todas las líneas con una consulta cada uno
+        Set<Long> productoIds = pedidoDto.items().stream()
+                .map(PedidoDtos.CreatePedidoItemDto::productoId)
+                .collect(Collectors.toSet());
+
+        Map<Long, Producto> productos = productoRepository.findAllById(productoIds).stream()
+                .collect(Collectors.toMap(Producto::getProductoId, Function.identity()));
+        Map<Long, InventarioProducto> inventarios = inventarioProductoRepository.findByProductoIdIn(productoIds).stream()
+                .collect(Collectors.toMap(i -> i.getProducto().getProductoId(), Function.identity()));
 
-        // 1. Verificar stock y generar alertas si es necesario
+        // 2. Validar que todas las líneas tengan producto e inventario
         for (PedidoDtos.CreatePedidoItemDto itemDto : pedidoDto.items()) {
-            Producto producto = productoRepository.findById(itemDto.productoId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado con ID: " + itemDto.productoId()));
-
-            InventarioProducto inventario = inventarioProductoRepository.findByProducto(producto)
-                    .orElseThrow(() -> new ResourceNotFoundException("Inventario no encontrado para el producto con ID: " + itemDto.productoId()));
-
-            if (inventario.getCantidadDisponible() < itemDto.cantidad()) {
-                estadoPedido = "Pendiente por Stock";
-                
-                int cantidadFaltante = itemDto.cantidad() - inventario.getCantidadDisponible();
-
-                Alerta alerta = Alerta.builder()
-                        .tipo(TipoAlerta.NECESIDAD_PRODUCCION)
-                        .mensaje("Stock insuficiente para '" + producto.getNombre() + "'. Se necesitan " + cantidadFaltante + " unidades para el pedido.")
-                        .prioridad(PrioridadAlerta.ALTA)
-                        .leida(false)
-                        .build();
-                alertaRepository.save(alerta);
+            if (!productos.containsKey(itemDto.productoId())) {
+                throw new ResourceNotFoundException("Producto no encontrado con ID: " + itemDto.productoId());
+            }
+            if (!inventarios.containsKey(itemDto.productoId())) {
+                throw new ResourceNotFoundException("Inventario no encontrado para el producto con ID: " + itemDto.productoId());
             }
         }
 
         Pedido pedido = Pedido.builder()
                 .cliente(cliente)
-                .estado(estadoPedido)
+                .estado(EstadoPedido.PENDIENTE)
                 .metodoPago(pedidoDto.metodoPago())
                 .observaciones(pedidoDto.observaciones())
                 .detalles(new ArrayList<>())
                 .build();
 
         BigDecimal totalPedido = BigDecimal.ZERO;
+        List<DetallePedido> detalles = new ArrayList<>();
 
-        // 2. Construir el pedido
+        // 3. Construir el pedido
         for (PedidoDtos.CreatePedidoItemDto itemDto : pedidoDto.items()) {
-            Producto producto = productoRepository.findById(itemDto.productoId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado con id: " + itemDto.productoId()));
+            Producto producto = productos.get(itemDto.productoId());
 
             BigDecimal subtotal = producto.getPrecioUnitario().multiply(new BigDecimal(itemDto.cantidad()));
             totalPedido = totalPedido.add(subtotal);
 
-            DetallePedido detalle = DetallePedido.builder()
+            detalles.add(DetallePedido.builder()
                     .pedido(pedido)
                     .producto(producto)
                     .cantidad(itemDto.cantidad())
                     .precioUnitario(producto.getPrecioUnitario())
                     .subtotal(subtotal)
-                    .build();
-            pedido.getDetalles().add(detalle);
+                    .build());
         }
 
+        // Los detalles se persisten en cascada; con ids de secuencia Hibernate los inserta en un batch al hacer flush
+        pedido.getDetalles().addAll(detalles);
         pedido.setTotal(totalPedido);
         Pedido savedPedido = pedidoRepository.save(pedido);
-        return mapToDto(savedPedido);
+
+        // 4. Reservar stock; lo que no cabe en el disponible para prometer queda pendiente.
+        // Las alertas las genera el worker del outbox a partir del evento
+        List<StockMutationEngine.Linea> sinReserva = reservaStockService.reservar(savedPedido, pedidoDto.items().stream()
+                .map(item -> new StockMutationEngine.Linea(item.productoId(), item.cantidad()))
+                .toList());
+
+        List<EventoPedidoDtos.FaltanteStock> faltantes = new ArrayList<>();
+        for (StockMutationEngine.Linea linea : sinReserva) {
+            int cantidadFaltante = linea.cantidad() - Math.max(0, inventarios.get(linea.productoId()).getDisponibleParaPrometer());
+            faltantes.add(new EventoPedidoDtos.FaltanteStock(linea.productoId(), productos.get(linea.productoId()).getNombre(), cantidadFaltante));
+        }
+        if (!faltantes.isEmpty()) {
+            savedPedido.setEstado(EstadoPedido.PENDIENTE_POR_STOCK);
+        }
+        eventoPedidoService.publicar(TipoEventoPedido.PEDIDO_CREADO, savedPedido.getPedidoId(), new EventoPedidoDtos.PedidoCreado(faltantes));
+
+        pedidoEstadoCounters.registrarAlta(savedPedido.getEstado());
+        return mapToDto(savedPedido, detalles);
     }
 
     @Override
     @Transactional
     public PedidoDtos.PedidoResponseDto despacharPedido(Long pedidoId) {
-        Pedido pedido = pedidoRepository.findByIdWithDetails(pedidoId)
-                .orElseThrow(() -> new ResourceNotFoundException("Pedido no encontrado con id: " + pedidoId));
+        // Con el pedido bloqueado, un despacho concurrente del mismo pedido espera y luego ve el estado nuevo
+        Pedido pedido = bloquearConDetalles(pedidoId);
 
-        if (!pedido.getEstado().equalsIgnoreCase("Pendiente") && !pedido.getEstado().equalsIgnoreCase("Pendiente por Stock")) {
+        if (!esDespachable(pedido)) {
             throw new BadRequestException("Solo se pueden despachar pedidos en estado 'Pendiente' o 'Pendiente por Stock'.");
         }
 
-        // Descontar cada producto del inventario
-        for (DetallePedido detalle : pedido.getDetalles()) {
-            Producto producto = detalle.getProducto();
-            int cantidadVendida = detalle.getCantidad();
+        // Descontar el inventario con UPDATE condicionales usando las reservas del pedido que sigan vigentes;
+        // si una línea falla se revierte todo, incluidas las reservas reclamadas
+        List<StockMutationEngine.Linea> lineas = pedido.getDetalles().stream()
+                .map(detalle -> new StockMutationEngine.Linea(detalle.getProducto().getProductoId(), detalle.getCantidad()))
+                .collect(Collectors.toList());
+
+        Map<Long, Integer> reservado = reservaStockService.reclamarReservas(pedidoId);
+        StockMutationEngine.Resultado resultado = stockMutationEngine.consumir(lineas, reservado);
+        if (!resultado.exitoso()) {
+            Map<Long, String> nombres = pedido.getDetalles().stream()
+                    .collect(Collectors.toMap(d -> d.getProducto().getProductoId(), d -> d.getProducto().getNombre(), (a, b) -> a));
+            String faltantes = resultado.fallidas().stream()
+                    .map(linea -> "'" + nombres.get(linea.productoId()) + "' (requerido: " + linea.cantidad() + ")")
+                    .collect(Collectors.joining(", "));
+            throw new BadRequestException("Stock insuficiente para los productos: " + faltantes);
+        }
+        registrarSalidasHot(pedido, saldosAntesDeSalidas(resultado, List.of(pedido)));
 
-            InventarioProducto inventarioProducto = inventarioProductoRepository.findByProducto(producto)
-                    .orElseThrow(() -> new ResourceNotFoundException("Inventario no encontrado para el producto: " + producto.getNombre()));
+        eventoPedidoService.publicar(TipoEventoPedido.PEDIDO_DESPACHADO, pedidoId, eventoDespacho(pedido));
+        pedidoEstadoCounters.registrarTransicion(pedido.getEstado(), EstadoPedido.DESPACHADO);
+        pedido.setEstado(EstadoPedido.DESPACHADO);
+        Pedido pedidoDespachado = pedidoRepository.save(pedido);
 
-            if (inventarioProducto.getCantidadDisponible() < cantidadVendida) {
-                throw new BadRequestException("Stock insuficiente para el producto '" + producto.getNombre() + "'. Requerido: " + cantidadVendida + ", Disponible: " + inventarioProducto.getCantidadDisponible());
+        return mapToDto(pedidoDespachado);
+    }
+    
+    @Override
+    @Transactional
+    public PedidoDtos.DespachoMasivoResponseDto despacharPedidos(List<Long> pedidoIds) {
+        Set<Long> ids = new TreeSet<>(pedidoIds);
+        // 0. Bloquear los pedidos por pedidoId: dos olas (o una ola y un despacho individual) que comparten
+        // un pedido se serializan y la segunda ve el estado ya cambiado
+        pedidoRepository.findAllByIdForUpdate(ids);
+        Map<Long, Pedido> pedidos = pedidoRepository.findAllByIdWithDetails(ids).stream()
+                .collect(Collectors.toMap(Pedido::getPedidoId, Function.identity()));
+
+        Map<Long, String> errores = new HashMap<>();
+        List<Pedido> candidatos = new ArrayList<>();
+        for (Long id : ids) {
+            Pedido pedido = pedidos.get(id);
+            if (pedido == null) {
+                errores.put(id, "Pedido no encontrado con id: " + id);
+            } else if (!esDespachable(pedido)) {
+                errores.put(id, "Solo se pueden despachar pedidos en estado 'Pendiente' o 'Pendiente por Stock'.");
+            } else {
+                candidatos.add(pedido);
             }
+        }
 
-            inventarioProducto.setCantidadDisponible(inventarioProducto.getCantidadDisponible() - cantidadVendida);
-            inventarioProductoRepository.save(inventarioProducto);
+        // 1. Bloquear reservas y luego inventario (por productoId), el mismo orden que el despacho individual
+        Map<Long, Map<Long, Integer>> reservas = reservaStockService.bloquearReservas(
+                candidatos.stream().map(Pedido::getPedidoId).toList());
+        Set<Long> productoIds = candidatos.stream()
+                .flatMap(pedido -> pedido.getDetalles().stream())
+                .map(detalle -> detalle.getProducto().getProductoId())
+                .collect(Collectors.toCollection(TreeSet::new));
+
+        Map<Long, int[]> saldos = new HashMap<>();
+        for (InventarioProducto inventario : inventarioProductoRepository.findByProductoIdInForUpdate(productoIds)) {
+            Long productoId = inventario.getProducto().getProductoId();
+            HotStockCounters.Saldo saldo = hotStockCounters.saldo(productoId)
+                    .orElse(new HotStockCounters.Saldo(inventario.getCantidadDisponible(), inventario.getCantidadReservada()));
+            saldos.put(productoId, new int[]{saldo.disponible(), saldo.reservada()});
         }
 
-        pedido.setEstado("Despachado");
-        Pedido pedidoDespachado = pedidoRepository.save(pedido);
+        // 2. Asignar el stock pedido por pedido en memoria; un pedido sin stock completo no se despacha
+        List<Pedido> despachados = new ArrayList<>();
+        Map<Long, Integer> totalPorProducto = new TreeMap<>();
+        Map<Long, Integer> reservadoPorProducto = new HashMap<>();
+        for (Pedido pedido : candidatos) {
+            Map<Long, Integer> lineas = new TreeMap<>();
+            Map<Long, String> nombres = new HashMap<>();
+            for (DetallePedido detalle : pedido.getDetalles()) {
+                lineas.merge(detalle.getProducto().getProductoId(), detalle.getCantidad(), Integer::sum);
+                nombres.put(detalle.getProducto().getProductoId(), detalle.getProducto().getNombre());
+            }
+            Map<Long, Integer> reservado = reservas.getOrDefault(pedido.getPedidoId(), Map.of());
+
+            List<String> faltantes = new ArrayList<>();
+            lineas.forEach((productoId, cantidad) -> {
+                int propia = Math.min(cantidad, reservado.getOrDefault(productoId, 0));
+                int[] saldo = saldos.get(productoId);
+                if (saldo == null || saldo[1] < propia || saldo[0] - saldo[1] + propia < cantidad) {
+                    faltantes.add("'" + nombres.get(productoId) + "' (requerido: " + cantidad + ")");
+                }
+            });
+            if (!faltantes.isEmpty()) {
+                errores.put(pedido.getPedidoId(), "Stock insuficiente para los productos: " + String.join(", ", faltantes));
+                continue;
+            }
 
-        return mapToDto(pedidoDespachado);
+            lineas.forEach((productoId, cantidad) -> {
+                int propia = Math.min(cantidad, reservado.getOrDefault(productoId, 0));
+                int[] saldo = saldos.get(productoId);
+                saldo[0] -= cantidad;
+                saldo[1] -= propia;
+                totalPorProducto.merge(productoId, cantidad, Integer::sum);
+                reservadoPorProducto.merge(productoId, propia, Integer::sum);
+            });
+            despachados.add(pedido);
+        }
+
+        // 3. Un solo descuento por producto; las filas ya están bloqueadas, solo un producto hot puede haber cambiado
+        StockMutationEngine.Resultado resultado = stockMutationEngine.consumir(totalPorProducto.entrySet().stream()
+                .map(e -> new StockMutationEngine.Linea(e.getKey(), e.getValue()))
+                .toList(), reservadoPorProducto);
+        if (!resultado.exitoso()) {
+            throw new BadRequestException("El stock cambió durante el despacho masivo, intente nuevamente.");
+        }
+
+        // 4. Cerrar reservas y cambiar el estado de todos los pedidos despachados en una sentencia
+        List<Long> idsDespachados = despachados.stream().map(Pedido::getPedidoId).toList();
+        if (!idsDespachados.isEmpty()) {
+            reservaStockService.eliminarReservas(idsDespachados);
+            int actualizados = pedidoRepository.updateEstado(idsDespachados, EstadoPedido.DESPACHADO,
+                    EstadoPedido.origenesDe(EstadoPedido.DESPACHADO));
+            if (actualizados != idsDespachados.size()) {
+                throw new BadRequestException("El estado de los pedidos cambió durante el despacho masivo, intente nuevamente.");
+            }
+            despachados.forEach(pedido -> pedidoEstadoCounters.registrarTransicion(pedido.getEstado(), EstadoPedido.DESPACHADO));
+            Map<Long, Integer> saldoHot = saldosAntesDeSalidas(resultado, despachados);
+            despachados.forEach(pedido -> registrarSalidasHot(pedido, saldoHot));
+            eventoPedidoService.publicar(TipoEventoPedido.PEDIDO_DESPACHADO, despachados.stream()
+                    .collect(Collectors.toMap(Pedido::getPedidoId, this::eventoDespacho)));
+        }
+
+        List<PedidoDtos.ResultadoDespachoDto> resultados = new ArrayList<>();
+        for (Long id : pedidoIds) {
+            resultados.add(new PedidoDtos.ResultadoDespachoDto(id, !errores.containsKey(id), errores.get(id)));
+        }
+        return new PedidoDtos.DespachoMasivoResponseDto(pedidoIds.size(), idsDespachados.size(), resultados);
     }
-    
+
     @Override
     @Transactional
     public PedidoDtos.PedidoResponseDto updatePedidoStatus(Long id, String estado) {
-        Pedido pedido = pedidoRepository.findByIdWithDetails(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Pedido no encontrado con id: " + id));
+        Pedido pedido = bloquearConDetalles(id);
 
-        if ("Entregado".equalsIgnoreCase(estado) && !"Entregado".equalsIgnoreCase(pedido.getEstado())) {
-            registrarVentasHistoricas(pedido);
+        EstadoPedido actual = pedido.getEstado();
+        EstadoPedido nuevo = EstadoPedido.desde(estado)
+                .orElseThrow(() -> new BadRequestException("Estado de pedido no válido: " + estado));
+        if (nuevo == actual) {
+            return mapToDto(pedido);
+        }
+        if (nuevo == EstadoPedido.DESPACHADO) {
+            throw new BadRequestException("Para despachar un pedido use el endpoint de despacho, que descuenta el stock.");
+        }
+        if (!actual.puedeCambiarA(nuevo)) {
+            throw new BadRequestException("No se puede cambiar un pedido de '" + actual.getEtiqueta() + "' a '" + nuevo.getEtiqueta() + "'.");
         }
 
-        pedido.setEstado(estado);
+        if (nuevo == EstadoPedido.ENTREGADO) {
+            eventoPedidoService.publicar(TipoEventoPedido.PEDIDO_ENTREGADO, id, new EventoPedidoDtos.PedidoEntregado(LocalDate.now()));
+        }
+        if (nuevo == EstadoPedido.CANCELADO) {
+            reservaStockService.liberarReservas(id);
+        }
+
+        pedidoEstadoCounters.registrarTransicion(actual, nuevo);
+        pedido.setEstado(nuevo);
         Pedido updatedPedido = pedidoRepository.save(pedido);
         return mapToDto(updatedPedido);
     }
 
-    private void registrarVentasHistoricas(Pedido pedido) {
+    // Bloquea el pedido y luego carga sus detalles; el estado leído es el vigente mientras dure la transacción
+    private Pedido bloquearConDetalles(Long pedidoId) {
+        if (pedidoRepository.findAllByIdForUpdate(List.of(pedidoId)).isEmpty()) {
+            throw new ResourceNotFoundException("Pedido no encontrado con id: " + pedidoId);
+        }
+        return pedidoRepository.findByIdWithDetails(pedidoId)
+                .orElseThrow(() -> new ResourceNotFoundException("Pedido no encontrado con id: " + pedidoId));
+    }
+
+    private boolean esDespachable(Pedido pedido) {
+        return pedido.getEstado().puedeCambiarA(EstadoPedido.DESPACHADO);
+    }
+
+    /**
+     * Los productos hot se descuentan en memoria: su salida queda como movimiento pendiente de volcar
+     */
+    private void registrarSalidasHot(Pedido pedido, Map<Long, Integer> saldoHot) {
+        List<MovimientoInventario> salidas = new ArrayList<>();
         for (DetallePedido detalle : pedido.getDetalles()) {
-            VentasHistoricas venta = VentasHistoricas.builder()
+            Long productoId = detalle.getProducto().getProductoId();
+            Integer cantidadAnterior = saldoHot.get(productoId);
+            if (cantidadAnterior == null) {
+                continue;
+            }
+            int cantidadNueva = cantidadAnterior - detalle.getCantidad();
+            saldoHot.put(productoId, cantidadNueva);
+            salidas.add(MovimientoInventario.builder()
                     .producto(detalle.getProducto())
-                    .fechaVenta(LocalDate.now())
-                    .cantidadVendida(detalle.getCantidad())
-                    .precioVenta(detalle.getPrecioUnitario())
-                    .pedido(pedido)
-                    .build();
-            ventasHistoricasRepository.save(venta);
+                    .tipoMovimiento(TipoMovimientoInventario.SALIDA)
+                    .cantidad(detalle.getCantidad())
+                    .cantidadAnterior(cantidadAnterior)
+                    .cantidadNueva(cantidadNueva)
+                    .motivo("Despacho de pedido #" + pedido.getPedidoId())
+                    .aplicado(false)
+                    .build());
+        }
+        movimientoInventarioRepository.saveAll(salidas);
+    }
+
+    /**
+     * Saldo de cada producto hot antes de las salidas de estos pedidos: lo que dejó el descuento
+     * agrupado más todo lo que se descontó. registrarSalidasHot lo va bajando línea por línea.
+     */
+    private Map<Long, Integer> saldosAntesDeSalidas(StockMutationEngine.Resultado resultado, List<Pedido> pedidos) {
+        Map<Long, Integer> saldoHot = new HashMap<>(resultado.disponibleHot());
+        for (Pedido pedido : pedidos) {
+            for (DetallePedido detalle : pedido.getDetalles()) {
+                saldoHot.computeIfPresent(detalle.getProducto().getProductoId(), (id, saldo) -> saldo + detalle.getCantidad());
+            }
         }
+        return saldoHot;
+    }
+
+    private EventoPedidoDtos.PedidoDespachado eventoDespacho(Pedido pedido) {
+        return new EventoPedidoDtos.PedidoDespachado(pedido.getDetalles().stream()
+                .map(detalle -> detalle.getProducto().getProductoId())
+                .distinct()
+                .toList());
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<PedidoDtos.PedidoResponseDto> findAll() {
-        return pedidoRepository.findAllWithDetails().stream().map(this::mapToDto).collect(Collectors.toList());
+    public PedidoDtos.PaginaPedidosDto findAll(PedidoDtos.ConsultaPedidosDto consulta) {
+        return buscarPagina(new PedidoLecturaRepository.Filtro(
+                estadoFiltro(consulta), consulta.clienteId(), null, consulta.desde(), consulta.hasta()), consulta);
+    }
+
+    @Override
+    public List<PedidoDtos.ConteoEstadoDto> contarPorEstado() {
+        return pedidoEstadoCounters.todos().entrySet().stream()
+                .map(e -> new PedidoDtos.ConteoEstadoDto(e.getKey().getEtiqueta(), e.getValue()))
+                .collect(Collectors.toList());
     }
 
     @Override
     @Transactional(readOnly = true)
     public Optional<PedidoDtos.PedidoResponseDto> findById(Long id) {
-        return pedidoRepository.findByIdWithDetails(id).map(this::mapToDto);
+        return pedidoLecturaRepository.findPedido(id)
+                .map(pedido -> mapToDto(pedido, pedidoLecturaRepository.findDetalles(List.of(id))));
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<PedidoDtos.PedidoResponseDto> findByClienteId(Long clienteId) {
-        return pedidoRepository.findByCliente_ClienteIdWithDetails(clienteId).stream().map(this::mapToDto).collect(Collectors.toList());
+    public PedidoDtos.PaginaPedidosDto findByClienteId(Long clienteId, PedidoDtos.ConsultaPedidosDto consulta) {
+        return buscarPagina(new PedidoLecturaRepository.Filtro(
+                estadoFiltro(consulta), clienteId, null, consulta.desde(), consulta.hasta()), consulta);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<PedidoDtos.PedidoResponseDto> findByCurrentUser(Authentication authentication) {
+    public PedidoDtos.PaginaPedidosDto findByCurrentUser(Authentication authentication, PedidoDtos.ConsultaPedidosDto consulta) {
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
-        return pedidoRepository.findByCliente_Usuario_UsuarioIdWithDetails(userDetails.getUsuarioId()).stream().map(this::mapToDto).collect(Collectors.toList());
+        return buscarPagina(new PedidoLecturaRepository.Filtro(
+                estadoFiltro(consulta), null, userDetails.getUsuarioId(), consulta.desde(), consulta.hasta()), consulta);
+    }
+
+    /**
+     * Una consulta para la página (con un registro extra para saber si hay más) y otra para sus detalles
+     */
+    private PedidoDtos.PaginaPedidosDto buscarPagina(PedidoLecturaRepository.Filtro filtro, PedidoDtos.ConsultaPedidosDto consulta) {
+        int limite = consulta.limite() != null ? consulta.limite() : tamanoPagina;
+        List<PedidoLecturaRepository.PedidoFila> pedidos = pedidoLecturaRepository.findPagina(filtro, decodificarCursor(consulta.cursor()), limite + 1);
+
+        String siguienteCursor = null;
+        if (pedidos.size() > limite) {
+            pedidos = pedidos.subList(0, limite);
+            siguienteCursor = codificarCursor(pedidos.get(limite - 1));
+        }
+
+        Map<Long, List<PedidoLecturaRepository.DetalleFila>> detallesPorPedido = pedidoLecturaRepository
+                .findDetalles(pedidos.stream().map(PedidoLecturaRepository.PedidoFila::pedidoId).toList()).stream()
+                .collect(Collectors.groupingBy(PedidoLecturaRepository.DetalleFila::pedidoId));
+
+        List<PedidoDtos.PedidoResponseDto> pagina = pedidos.stream()
+                .map(pedido -> mapToDto(pedido, detallesPorPedido.getOrDefault(pedido.pedidoId(), List.of())))
+                .collect(Collectors.toList());
+        return new PedidoDtos.PaginaPedidosDto(pagina, siguienteCursor);
+    }
+
+    private static EstadoPedido estadoFiltro(PedidoDtos.ConsultaPedidosDto consulta) {
+        if (consulta.estado() == null || consulta.estado().isBlank()) {
+            return null;
+        }
+        return EstadoPedido.desde(consulta.estado())
+                .orElseThrow(() -> new BadRequestException("Estado de pedido no válido: " + consulta.estado()));
+    }
+
+    // El cursor es opaco para el cliente: "fechaPedido:pedidoId" en Base64 URL
+    private static String codificarCursor(PedidoLecturaRepository.PedidoFila pedido) {
+        String valor = pedido.fechaPedido() + ":" + pedido.pedidoId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static PedidoLecturaRepository.Cursor decodificarCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String[] partes = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            return new PedidoLecturaRepository.Cursor(LocalDate.parse(partes[0]), Long.parseLong(partes[1]));
+        } catch (RuntimeException e) {
+            throw new BadRequestException("El cursor de paginación no es válido.");
+        }
+    }
+
+    private PedidoDtos.PedidoResponseDto mapToDto(PedidoLecturaRepository.PedidoFila pedido, List<PedidoLecturaRepository.DetalleFila> detalles) {
+        List<PedidoDtos.DetallePedidoResponseDto> detallesDto = detalles.stream()
+                .map(detalle -> new PedidoDtos.DetallePedidoResponseDto(
+                        detalle.detalleId(),
+                        detalle.productoId(),
+                        detalle.nombreProducto(),
+                        detalle.cantidad(),
+                        detalle.precioUnitario(),
+                        detalle.subtotal()
+                )).collect(Collectors.toList());
+
+        return new PedidoDtos.PedidoResponseDto(
+                pedido.pedidoId(),
+                pedido.clienteId(),
+                pedido.nombreCliente(),
+                pedido.fechaPedido(),
+                pedido.estado().getEtiqueta(),
+                pedido.metodoPago(),
+                pedido.total(),
+                pedido.observaciones(),
+                detallesDto
+        );
     }
 
     private PedidoDtos.PedidoResponseDto mapToDto(Pedido pedido) {
-        List<PedidoDtos.DetallePedidoResponseDto> detallesDto = pedido.getDetalles().stream()
+        return mapToDto(pedido, pedido.getDetalles());
+    }
+
+    private PedidoDtos.PedidoResponseDto mapToDto(Pedido pedido, List<DetallePedido> detalles) {
+        List<PedidoDtos.DetallePedidoResponseDto> detallesDto = detalles.stream()
                 .map(detalle -> new PedidoDtos.DetallePedidoResponseDto(
                         detalle.getDetalleId(),
                         detalle.getProducto().getProductoId(),
@@ -198,7 +498,7 @@ public class PedidoServiceImpl implements PedidoService {
                 pedido.getCliente().getClienteId(),
                 pedido.getCliente().getNombre(),
                 pedido.getFechaPedido(),
-                pedido.getEstado(),
+                pedido.getEstado().getEtiqueta(),
                 pedido.getMetodoPago(),
                 pedido.getTotal(),
                 pedido.getObservaciones(),
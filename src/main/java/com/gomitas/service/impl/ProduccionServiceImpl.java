@@ -3,11 +3,14 @@ package com.gomitas.service.impl;
 import com.gomitas.dto.ProduccionDtos;
 import com.gomitas.entity.*;
 import com.gomitas.enums.EstadoProduccion;
+import com.gomitas.enums.TipoMovimientoInventario;
 import com.gomitas.exception.BadRequestException;
 import com.gomitas.exception.ResourceNotFoundException;
 import com.gomitas.repository.*;
 import com.gomitas.security.UserDetailsImpl;
 import com.gomitas.service.ProduccionService;
+import com.gomitas.service.impl.util.RecetaCache;
+import com.gomitas.service.impl.util.StockMutationEngine;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
@@ -17,6 +20,8 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,11 +31,12 @@ public class ProduccionServiceImpl implements ProduccionService {
     private final OrdenProduccionRepository ordenProduccionRepository;
     private final ProductoRepository productoRepository;
     private final InsumoRepository insumoRepository;
-    private final ProductoInsumoRepository productoInsumoRepository;
     private final DetalleProduccionRepository detalleProduccionRepository;
     private final UsuarioRepository usuarioRepository;
-    private final InventarioProductoRepository inventarioProductoRepository;
     private final LoteInsumoRepository loteInsumoRepository; // Repositorio para lotes
+    private final MovimientoInventarioRepository movimientoInventarioRepository;
+    private final StockMutationEngine stockMutationEngine;
+    private final RecetaCache recetaCache;
 
     @Override
     @Transactional(readOnly = true)
@@ -51,16 +57,20 @@ public class ProduccionServiceImpl implements ProduccionService {
     @Transactional
     public ProduccionDtos.OrdenProduccionResponseDto createOrdenProduccion(ProduccionDtos.CreateOrdenProduccionRequestDto requestDto, Authentication authentication) {
         Producto producto = findProductoById(requestDto.productoId());
-        List<ProductoInsumo> receta = productoInsumoRepository.findByProducto(producto);
+        List<RecetaCache.Linea> receta = recetaCache.receta(producto.getProductoId());
 
         if (receta.isEmpty()) {
             throw new BadRequestException("El producto no tiene una receta de insumos definida.");
         }
 
+        // Los insumos de la receta con sus lotes en una sola consulta
+        Map<Long, Insumo> insumos = insumoRepository.findAllWithLotesByIdIn(receta.stream().map(RecetaCache.Linea::insumoId).toList()).stream()
+                .collect(Collectors.toMap(Insumo::getInsumoId, Function.identity()));
+
         // Verificar stock de insumos sumando las cantidades de los lotes
-        for (ProductoInsumo itemReceta : receta) {
-            Insumo insumo = itemReceta.getInsumo();
-            BigDecimal cantidadRequerida = itemReceta.getCantidadRequerida().multiply(BigDecimal.valueOf(requestDto.cantidadPlanificada()));
+        for (RecetaCache.Linea itemReceta : receta) {
+            Insumo insumo = insumos.get(itemReceta.insumoId());
+            BigDecimal cantidadRequerida = itemReceta.cantidadRequerida().multiply(BigDecimal.valueOf(requestDto.cantidadPlanificada()));
             BigDecimal stockTotal = getInsumoStock(insumo);
             if (stockTotal.compareTo(cantidadRequerida) < 0) {
                 throw new BadRequestException("Stock insuficiente para el insumo: " + insumo.getNombre() + ". Requerido: " + cantidadRequerida + ", Disponible: " + stockTotal);
@@ -78,15 +88,15 @@ public class ProduccionServiceImpl implements ProduccionService {
 
         OrdenProduccion savedOrden = ordenProduccionRepository.save(orden);
 
-        receta.forEach(itemReceta -> {
-            DetalleProduccion detalle = DetalleProduccion.builder()
-                    .ordenProduccion(savedOrden)
-                    .insumo(itemReceta.getInsumo())
-                    .cantidadRequerida(itemReceta.getCantidadRequerida().multiply(BigDecimal.valueOf(requestDto.cantidadPlanificada())))
-                    .cantidadUtilizada(BigDecimal.ZERO)
-                    .build();
-            detalleProduccionRepository.save(detalle);
-        });
+        // Un INSERT en batch para todos los detalles (ids de secuencia)
+        detalleProduccionRepository.saveAll(receta.stream()
+                .map(itemReceta -> DetalleProduccion.builder()
+                        .ordenProduccion(savedOrden)
+                        .insumo(insumos.get(itemReceta.insumoId()))
+                        .cantidadRequerida(itemReceta.cantidadRequerida().multiply(BigDecimal.valueOf(requestDto.cantidadPlanificada())))
+                        .cantidadUtilizada(BigDecimal.ZERO)
+                        .build())
+                .toList());
 
         return mapToOrdenProduccionResponseDto(savedOrden);
     }
@@ -118,12 +128,21 @@ public class ProduccionServiceImpl implements ProduccionService {
         }
 
         // 2. Incrementar stock del producto terminado
+        // El motor invalida la disponibilidad de la tienda y resuelve si el saldo vive en memoria o en la tabla
         Producto productoTerminado = orden.getProducto();
-        InventarioProducto inventarioProducto = inventarioProductoRepository.findByProducto(productoTerminado)
-                .orElseThrow(() -> new ResourceNotFoundException("No se encontró el registro de inventario para el producto: " + productoTerminado.getNombre()));
-
-        inventarioProducto.setCantidadDisponible(inventarioProducto.getCantidadDisponible() + orden.getCantidadPlanificada());
-        inventarioProductoRepository.save(inventarioProducto);
+        int cantidadNueva = stockMutationEngine.incrementar(productoTerminado.getProductoId(), orden.getCantidadPlanificada());
+        if (stockMutationEngine.esHot(productoTerminado.getProductoId())) {
+            // Producto hot: el saldo cambió en memoria y el movimiento pendiente lo hace durable
+            movimientoInventarioRepository.save(MovimientoInventario.builder()
+                    .producto(productoTerminado)
+                    .tipoMovimiento(TipoMovimientoInventario.ENTRADA)
+                    .cantidad(orden.getCantidadPlanificada())
+                    .cantidadAnterior(cantidadNueva - orden.getCantidadPlanificada())
+                    .cantidadNueva(cantidadNueva)
+                    .motivo("Orden de producción #" + orden.getOrdenId())
+                    .aplicado(false)
+                    .build());
+        }
 
         // 3. Actualizar estado de la orden
         orden.setEstado(EstadoProduccion.COMPLETADA);
@@ -195,14 +214,13 @@ public class ProduccionServiceImpl implements ProduccionService {
     @Transactional(readOnly = true)
     public ProduccionDtos.RecetaProductoResponseDto getRecetaByProductoId(Long productoId) {
         Producto producto = findProductoById(productoId);
-        List<ProductoInsumo> receta = productoInsumoRepository.findByProducto(producto);
 
-        List<ProduccionDtos.RecetaInsumoDto> insumosDto = receta.stream()
+        List<ProduccionDtos.RecetaInsumoDto> insumosDto = recetaCache.receta(productoId).stream()
                 .map(item -> new ProduccionDtos.RecetaInsumoDto(
-                        item.getInsumo().getInsumoId(),
-                        item.getInsumo().getNombre(),
-                        item.getCantidadRequerida(),
-                        item.getUnidad()
+                        item.insumoId(),
+                        item.nombreInsumo(),
+                        item.cantidadRequerida(),
+                        item.unidad()
                 ))
                 .collect(Collectors.toList());
 
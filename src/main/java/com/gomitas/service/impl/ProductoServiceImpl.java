@@ -8,19 +8,32 @@ import com.gomitas.repository.InventarioProductoRepository;
 import com.gomitas.repository.ProductoRepository;
 import com.gomitas.entity.Insumo;
 import com.gomitas.entity.ProductoInsumo;
+import com.gomitas.enums.EstadoImagen;
+import com.gomitas.enums.OrdenProducto;
+import com.gomitas.exception.BadRequestException;
 import com.gomitas.repository.InsumoRepository;
 import com.gomitas.repository.ProductoInsumoRepository;
 import com.gomitas.service.ProductoService;
-import com.gomitas.service.impl.util.CloudinaryServiceImpl;
+import com.gomitas.service.impl.util.CatalogoProductosCache;
+import com.gomitas.service.impl.util.DisponibilidadTiendaCache;
+import com.gomitas.service.impl.util.IndiceProductos;
+import com.gomitas.service.impl.util.RecetaCache;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,27 +44,57 @@ public class ProductoServiceImpl implements ProductoService {
     private final InventarioProductoRepository inventarioProductoRepository;
     private final ProductoInsumoRepository productoInsumoRepository;
     private final InsumoRepository insumoRepository;
-    private final CloudinaryServiceImpl cloudinaryService;
+    private final ImagenProductoPipeline imagenProductoPipeline;
+    private final CatalogoProductosCache catalogoProductosCache;
+    private final DisponibilidadTiendaCache disponibilidadTiendaCache;
+    private final RecetaCache recetaCache;
+
+    @Value("${app.catalogo.pageSize:24}")
+    private int tamanoPagina;
 
     @Override
-    @Transactional(readOnly = true)
     public List<ProductoDtos.ProductoResponseDto> findAll() {
-        return productoRepository.findAll().stream()
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
+        return catalogo().todos();
     }
 
     @Override
-    @Transactional(readOnly = true)
     public List<ProductoDtos.ProductoResponseDto> findAllActive() {
-        return productoRepository.findByEstadoTrue().stream()
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
+        return catalogo().activos();
+    }
+
+    @Override
+    public ProductoDtos.CatalogoActivoDto buscarCatalogo(ProductoDtos.ConsultaProductosDto consulta) {
+        if (consulta.precioMin() != null && consulta.precioMax() != null && consulta.precioMin().compareTo(consulta.precioMax()) > 0) {
+            throw new BadRequestException("El precio mínimo no puede ser mayor que el precio máximo.");
+        }
+        OrdenProducto orden = OrdenProducto.NOMBRE;
+        if (consulta.orden() != null && !consulta.orden().isBlank()) {
+            orden = OrdenProducto.desde(consulta.orden())
+                    .orElseThrow(() -> new BadRequestException("Orden de productos no válido: " + consulta.orden()));
+        }
+        int limite = consulta.limite() != null ? consulta.limite() : tamanoPagina;
+
+        CatalogoProductosCache.Catalogo catalogo = catalogo();
+        IndiceProductos.Resultado resultado = catalogo.indice().buscar(new IndiceProductos.Consulta(
+                consulta.q(), consulta.precioMin(), consulta.precioMax(), orden, decodificarCursor(consulta.cursor()), limite));
+
+        String siguienteCursor = resultado.hayMas() ? codificarCursor(resultado.ultima()) : null;
+        return new ProductoDtos.CatalogoActivoDto(catalogo.version(),
+                new ProductoDtos.PaginaProductosDto(resultado.productos(), resultado.total(), siguienteCursor));
+    }
+
+    @Override
+    public List<ProductoDtos.ProductoTiendaDto> findTienda() {
+        return disponibilidadTiendaCache.productos();
     }
 
     @Override
-    @Transactional(readOnly = true)
     public Optional<ProductoDtos.ProductoResponseDto> findById(Long id) {
+        ProductoDtos.ProductoResponseDto producto = catalogo().porId().get(id);
+        if (producto != null) {
+            return Optional.of(producto);
+        }
+        // Puede ser un alta de otra réplica que aún no llegó a la próxima reconstrucción
         return productoRepository.findById(id).map(this::mapToDto);
     }
 
@@ -66,10 +109,10 @@ public class ProductoServiceImpl implements ProductoService {
                 .estado(true)
                 .build();
 
+        // La imagen se sube después del commit; el producto queda con la imagen pendiente
         if (imagen != null && !imagen.isEmpty()) {
-            Map<?, ?> uploadResult = cloudinaryService.uploadFile(imagen, "gomipets/productos");
-            String imageUrl = (String) uploadResult.get("secure_url");
-            producto.setImageUrl(imageUrl);
+            producto.setEstadoImagen(EstadoImagen.PENDIENTE);
+            producto.setImagenPendiente(imagenProductoPipeline.preparar(imagen));
         }
 
         Producto savedProducto = productoRepository.save(producto);
@@ -80,6 +123,10 @@ public class ProductoServiceImpl implements ProductoService {
                 .build();
         inventarioProductoRepository.save(inventario);
 
+        if (savedProducto.getImagenPendiente() != null) {
+            imagenProductoPipeline.programar(savedProducto.getProductoId(), savedProducto.getImagenPendiente());
+        }
+        catalogoProductosCache.recargarAlConfirmar();
         return mapToDto(savedProducto);
     }
 
@@ -89,23 +136,15 @@ public class ProductoServiceImpl implements ProductoService {
         Producto producto = productoRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado con id: " + id));
 
+        // La imagen anterior se borra cuando la nueva ya está publicada
         if (imagen != null && !imagen.isEmpty()) {
-            // Borrar imagen anterior solo si existe una URL y se puede extraer un publicId válido
-            if (producto.getImageUrl() != null && !producto.getImageUrl().isEmpty()) {
-                String publicId = cloudinaryService.getPublicIdFromUrl(producto.getImageUrl());
-                if (publicId != null && !publicId.isEmpty()) {
-                    try {
-                        cloudinaryService.deleteFile(publicId);
-                    } catch (IOException e) {
-                        // Opcional: Loggear el error si la eliminación falla, pero no detener el proceso
-                        System.err.println("Error al eliminar la imagen anterior de Cloudinary: " + e.getMessage());
-                    }
-                }
+            String anteriorPendiente = producto.getImagenPendiente();
+            producto.setEstadoImagen(EstadoImagen.PENDIENTE);
+            producto.setImagenPendiente(imagenProductoPipeline.preparar(imagen));
+            imagenProductoPipeline.programar(id, producto.getImagenPendiente());
+            if (anteriorPendiente != null) {
+                imagenProductoPipeline.descartar(anteriorPendiente);
             }
-            // Subir nueva imagen
-            Map<?, ?> uploadResult = cloudinaryService.uploadFile(imagen, "gomipets/productos");
-            String newImageUrl = (String) uploadResult.get("secure_url");
-            producto.setImageUrl(newImageUrl);
         }
 
         producto.setNombre(productoDto.nombre());
@@ -115,6 +154,7 @@ public class ProductoServiceImpl implements ProductoService {
         producto.setEstado(productoDto.estado());
 
         Producto updatedProducto = productoRepository.save(producto);
+        catalogoProductosCache.recargarAlConfirmar();
         return mapToDto(updatedProducto);
     }
 
@@ -125,17 +165,20 @@ public class ProductoServiceImpl implements ProductoService {
                 .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado con id: " + id));
         producto.setEstado(false);
         productoRepository.save(producto);
+        catalogoProductosCache.recargarAlConfirmar();
     }
 
     @Override
-    @Transactional(readOnly = true)
     public List<ProductoDtos.RecetaResponseDto> getRecetaByProductoId(Long productoId) {
-        if (!productoRepository.existsById(productoId)) {
+        if (!catalogo().porId().containsKey(productoId) && !productoRepository.existsById(productoId)) {
             throw new ResourceNotFoundException("Producto no encontrado con id: " + productoId);
         }
-        List<ProductoInsumo> receta = productoInsumoRepository.findByProducto_ProductoId(productoId);
-        return receta.stream()
-                .map(this::mapProductoInsumoToDto)
+        return recetaCache.receta(productoId).stream()
+                .map(linea -> new ProductoDtos.RecetaResponseDto(
+                        linea.insumoId(),
+                        linea.nombreInsumo(),
+                        linea.cantidadRequerida(),
+                        linea.unidad()))
                 .collect(Collectors.toList());
     }
 
@@ -145,13 +188,21 @@ public class ProductoServiceImpl implements ProductoService {
         Producto producto = productoRepository.findById(productoId)
                 .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado con id: " + productoId));
 
-        // Borra la receta anterior para asegurar que la nueva sea la única
-        productoInsumoRepository.deleteByProducto_ProductoId(productoId);
+        // Todos los insumos en una consulta
+        Set<Long> insumoIds = new HashSet<>();
+        for (ProductoDtos.RecetaInsumoDto insumoDto : recetaDto.insumos()) {
+            if (!insumoIds.add(insumoDto.insumoId())) {
+                throw new BadRequestException("El insumo con id " + insumoDto.insumoId() + " está repetido en la receta.");
+            }
+        }
+        Map<Long, Insumo> insumos = insumoRepository.findAllById(insumoIds).stream()
+                .collect(Collectors.toMap(Insumo::getInsumoId, Function.identity()));
 
         List<ProductoInsumo> nuevaReceta = recetaDto.insumos().stream().map(insumoDto -> {
-            Insumo insumo = insumoRepository.findById(insumoDto.insumoId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Insumo no encontrado con id: " + insumoDto.insumoId()));
-
+            Insumo insumo = insumos.get(insumoDto.insumoId());
+            if (insumo == null) {
+                throw new ResourceNotFoundException("Insumo no encontrado con id: " + insumoDto.insumoId());
+            }
             return ProductoInsumo.builder()
                     .producto(producto)
                     .insumo(insumo)
@@ -160,24 +211,45 @@ public class ProductoServiceImpl implements ProductoService {
                     .build();
         }).collect(Collectors.toList());
 
+        // Borra la receta anterior para asegurar que la nueva sea la única; las líneas nuevas se insertan en un batch
+        productoInsumoRepository.eliminarPorProducto(productoId);
         List<ProductoInsumo> savedReceta = productoInsumoRepository.saveAll(nuevaReceta);
+        recetaCache.invalidarAlConfirmar(productoId);
 
         return savedReceta.stream()
                 .map(this::mapProductoInsumoToDto)
                 .collect(Collectors.toList());
     }
 
+    // Solo antes de la primera carga (arranque) se lee de la base de datos
+    private CatalogoProductosCache.Catalogo catalogo() {
+        if (!catalogoProductosCache.cargado()) {
+            catalogoProductosCache.reconstruir();
+        }
+        return catalogoProductosCache.actual();
+    }
+
+    // El cursor es opaco para el cliente: "productoId:precio:nombre normalizado" en Base64 URL;
+    // guarda la posición por valor y no por índice, así sigue siendo válido si el catálogo cambia
+    private static String codificarCursor(IndiceProductos.Clave clave) {
+        String valor = clave.productoId() + ":" + clave.precio().toPlainString() + ":" + clave.nombre();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static IndiceProductos.Clave decodificarCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String[] partes = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":", 3);
+            return new IndiceProductos.Clave(Long.parseLong(partes[0]), new BigDecimal(partes[1]), partes[2]);
+        } catch (RuntimeException e) {
+            throw new BadRequestException("El cursor de paginación no es válido.");
+        }
+    }
+
     private ProductoDtos.ProductoResponseDto mapToDto(Producto producto) {
-        return new ProductoDtos.ProductoResponseDto(
-                producto.getProductoId(),
-                producto.getNombre(),
-                producto.getDescripcion(),
-                producto.getPrecioUnitario(),
-                producto.getImageUrl(),
-                producto.getStockMinimo(),
-                producto.getFechaCreacion(),
-                producto.getEstado()
-        );
+        return CatalogoProductosCache.aDto(producto);
     }
 
     private ProductoDtos.RecetaResponseDto mapProductoInsumoToDto(ProductoInsumo productoInsumo) {
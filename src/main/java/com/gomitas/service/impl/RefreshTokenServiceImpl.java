@@ -0,0 +1,133 @@
+package com.gomitas.service.impl;
+
+import com.gomitas.entity.RefreshToken;
+import com.gomitas.exception.BadRequestException;
+import com.gomitas.repository.RefreshTokenRepository;
+import com.gomitas.repository.UsuarioRepository;
+import com.gomitas.security.JwtUtils;
+import com.gomitas.security.UserDetailsImpl;
+import com.gomitas.security.VerifiedJwt;
+import com.gomitas.service.RefreshTokenService;
+import com.gomitas.service.impl.util.BloomFilter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Emite y rota refresh tokens persistidos por jti.
+ * Los jti revocados se consultan primero en un filtro de Bloom en memoria,
+ * así el camino normal de renovación no necesita leer la tabla.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RefreshTokenServiceImpl implements RefreshTokenService {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final JwtUtils jwtUtils;
+
+    @Value("${app.refreshToken.bloomExpectedInsertions:100000}")
+    private int bloomExpectedInsertions;
+
+    private volatile BloomFilter revocados = new BloomFilter(1, 0.01);
+
+    @Override
+    @Transactional
+    public String createRefreshToken(Authentication authentication) {
+        return emitir(authentication, UUID.randomUUID().toString());
+    }
+
+    @Override
+    @Transactional(noRollbackFor = BadRequestException.class)
+    public String rotateRefreshToken(VerifiedJwt refreshToken, Authentication authentication) {
+        String jti = refreshToken.id();
+        if (jti == null || refreshToken.family() == null) {
+            throw new BadRequestException("Refresh token inválido");
+        }
+
+        // Un "no" del filtro es definitivo; un "quizás" se confirma contra la tabla antes de rotar
+        if (revocados.mightContain(jti)
+                && refreshTokenRepository.findById(jti).map(RefreshToken::isRevocado).orElse(false)) {
+            manejarReutilizacion(jti, refreshToken);
+        }
+
+        String nuevoJti = UUID.randomUUID().toString();
+        int actualizados = refreshTokenRepository.markRotated(jti, refreshToken.userId(), nuevoJti);
+        if (actualizados == 0) {
+            manejarReutilizacion(jti, refreshToken);
+        }
+        revocados.put(jti);
+
+        return emitir(authentication, refreshToken.family(), nuevoJti);
+    }
+
+    /**
+     * Un token ya rotado que vuelve a presentarse indica robo: se revoca toda la familia
+     */
+    private void manejarReutilizacion(String jti, VerifiedJwt refreshToken) {
+        if (refreshTokenRepository.existsById(jti)) {
+            refreshTokenRepository.revokeFamilia(refreshToken.family());
+            List<String> familia = refreshTokenRepository.findJtisByFamilia(refreshToken.family());
+            BloomFilter filtro = revocados;
+            familia.forEach(filtro::put);
+
+            log.warn("Reutilización de refresh token detectada para usuario {} (jti {}); se revocan {} tokens",
+                    refreshToken.subject(), jti, familia.size());
+            throw new BadRequestException("Refresh token revocado");
+        }
+        throw new BadRequestException("Refresh token inválido");
+    }
+
+    private String emitir(Authentication authentication, String familia) {
+        return emitir(authentication, familia, UUID.randomUUID().toString());
+    }
+
+    private String emitir(Authentication authentication, String familia, String jti) {
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+        Date expiracion = jwtUtils.getRefreshExpirationFromNow();
+
+        refreshTokenRepository.save(RefreshToken.builder()
+                .jti(jti)
+                .usuario(usuarioRepository.getReferenceById(userDetails.getUsuarioId()))
+                .familia(familia)
+                .fechaEmision(LocalDateTime.now())
+                .fechaExpiracion(LocalDateTime.ofInstant(expiracion.toInstant(), ZoneId.systemDefault()))
+                .build());
+
+        return jwtUtils.generateRefreshToken(authentication, jti, familia, expiracion);
+    }
+
+    /**
+     * Reconstruye el filtro de Bloom con los jti revocados que aún no expiran
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuildRevokedFilter() {
+        List<String> jtis = refreshTokenRepository.findRevokedJtis(LocalDateTime.now());
+        BloomFilter filtro = new BloomFilter(Math.max(bloomExpectedInsertions, jtis.size() * 2), 0.01);
+        jtis.forEach(filtro::put);
+        this.revocados = filtro;
+        log.info("Filtro de refresh tokens revocados reconstruido con {} entradas", jtis.size());
+    }
+
+    @Scheduled(cron = "0 30 3 * * *") // Todos los días a las 3:30 AM
+    @Transactional
+    public void purgeExpiredTokens() {
+        int eliminados = refreshTokenRepository.deleteExpired(LocalDateTime.now());
+        log.info("Refresh tokens expirados eliminados: {}", eliminados);
+        rebuildRevokedFilter();
+    }
+}
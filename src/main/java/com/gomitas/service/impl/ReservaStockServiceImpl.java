@@ -0,0 +1,136 @@
+package com.gomitas.service.impl;
+
+import com.gomitas.entity.Pedido;
+import com.gomitas.entity.ReservaStock;
+import com.gomitas.repository.PedidoBulkRepository;
+import com.gomitas.repository.ReservaStockRepository;
+import com.gomitas.service.ReservaStockService;
+import com.gomitas.service.impl.util.StockMutationEngine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Libro de reservas de stock: al crear un pedido se aparta lo que cabe en el disponible
+ * para prometer, y se libera al despachar, cancelar o expirar.
+ *
+ * Cada reserva se "reclama" borrando su fila; solo quien obtiene 1 fila afectada ajusta
+ * cantidad_reservada, así despacho, cancelación y barrido no liberan dos veces lo mismo.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReservaStockServiceImpl implements ReservaStockService {
+
+    private final ReservaStockRepository reservaStockRepository;
+    private final PedidoBulkRepository pedidoBulkRepository;
+    private final StockMutationEngine stockMutationEngine;
+
+    @Value("${app.reservaStock.ttlMinutes:2880}")
+    private long ttlMinutes;
+
+    @Value("${app.reservaStock.sweepBatchSize:500}")
+    private int sweepBatchSize;
+
+    @Override
+    @Transactional
+    public List<StockMutationEngine.Linea> reservar(Pedido pedido, Collection<StockMutationEngine.Linea> lineas) {
+        StockMutationEngine.Resultado resultado = stockMutationEngine.reservar(lineas);
+
+        Set<Long> sinReserva = new HashSet<>();
+        resultado.fallidas().forEach(linea -> sinReserva.add(linea.productoId()));
+
+        Map<Long, Integer> reservadas = new TreeMap<>();
+        for (StockMutationEngine.Linea linea : lineas) {
+            if (!sinReserva.contains(linea.productoId())) {
+                reservadas.merge(linea.productoId(), linea.cantidad(), Integer::sum);
+            }
+        }
+        pedidoBulkRepository.insertReservas(pedido.getPedidoId(), reservadas, LocalDateTime.now().plusMinutes(ttlMinutes));
+
+        return resultado.fallidas();
+    }
+
+    @Override
+    @Transactional
+    public Map<Long, Integer> reclamarReservas(Long pedidoId) {
+        return reclamar(reservaStockRepository.findByPedidoId(pedidoId));
+    }
+
+    @Override
+    @Transactional
+    public void liberarReservas(Long pedidoId) {
+        liberar(reclamarReservas(pedidoId));
+    }
+
+    @Override
+    @Transactional
+    public Map<Long, Map<Long, Integer>> bloquearReservas(Collection<Long> pedidoIds) {
+        Map<Long, Map<Long, Integer>> porPedido = new HashMap<>();
+        for (ReservaStock reserva : reservaStockRepository.findByPedidoIdInForUpdate(pedidoIds)) {
+            porPedido.computeIfAbsent(reserva.getPedido().getPedidoId(), id -> new TreeMap<>())
+                    .merge(reserva.getProducto().getProductoId(), reserva.getCantidad(), Integer::sum);
+        }
+        return porPedido;
+    }
+
+    @Override
+    @Transactional
+    public void eliminarReservas(Collection<Long> pedidoIds) {
+        if (!pedidoIds.isEmpty()) {
+            reservaStockRepository.deleteByPedidoIdIn(pedidoIds);
+        }
+    }
+
+    /**
+     * Libera las reservas vencidas recorriendo el índice por fecha de expiración, un lote por vez
+     */
+    @Scheduled(fixedDelayString = "${app.reservaStock.sweepMs:60000}")
+    @Transactional
+    public void liberarReservasExpiradas() {
+        List<ReservaStockRepository.ReservaResumen> expiradas =
+                reservaStockRepository.findExpiradas(LocalDateTime.now(), PageRequest.of(0, sweepBatchSize));
+        if (expiradas.isEmpty()) {
+            return;
+        }
+
+        // Se reclaman por id para tomar los bloqueos siempre en el mismo orden
+        List<ReservaStockRepository.ReservaResumen> ordenadas = new ArrayList<>(expiradas);
+        ordenadas.sort(Comparator.comparing(ReservaStockRepository.ReservaResumen::getReservaId));
+
+        Map<Long, Integer> liberadas = reclamar(ordenadas);
+        liberar(liberadas);
+        log.info("Reservas de stock expiradas liberadas: {} de {} productos", expiradas.size(), liberadas.size());
+    }
+
+    private Map<Long, Integer> reclamar(List<ReservaStockRepository.ReservaResumen> reservas) {
+        Map<Long, Integer> porProducto = new TreeMap<>();
+        for (ReservaStockRepository.ReservaResumen reserva : reservas) {
+            if (reservaStockRepository.reclamar(reserva.getReservaId()) == 1) {
+                porProducto.merge(reserva.getProductoId(), reserva.getCantidad(), Integer::sum);
+            }
+        }
+        return porProducto;
+    }
+
+    private void liberar(Map<Long, Integer> porProducto) {
+        stockMutationEngine.liberar(porProducto.entrySet().stream()
+                .map(e -> new StockMutationEngine.Linea(e.getKey(), e.getValue()))
+                .toList());
+    }
+}
@@ -6,6 +6,7 @@ import com.gomitas.security.UserDetailsImpl;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -15,7 +16,7 @@ import org.springframework.transaction.annotation.Transactional;
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     private final UsuarioRepository usuarioRepository;
 
@@ -26,10 +27,24 @@ public class UserDetailsServiceImpl implements UserDetailsService {
 
         Usuario usuario = usuarioRepository.findByNombreUsuario(username)
                 .orElseThrow(() -> {
-                    log.error("Usuario no encontrado: {}",username);
+                    log.debug("Usuario no encontrado: {}",username);
                     return new UsernameNotFoundException("Usuarios no encontrado");
                 });
         log.debug("usuario encontrado: {} con rool: {}",usuario.getNombreUsuario(), usuario.getRol());
         return UserDetailsImpl.build(usuario);
     }
+
+    /**
+     * Guarda el hash regenerado durante el login cuando cambió el costo de BCrypt
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        usuarioRepository.updatePassword(user.getUsername(), newPassword);
+        log.debug("Hash de contraseña actualizado para usuario: {}", user.getUsername());
+
+        UserDetailsImpl userDetails = (UserDetailsImpl) user;
+        userDetails.setContraseña(newPassword);
+        return userDetails;
+    }
 }
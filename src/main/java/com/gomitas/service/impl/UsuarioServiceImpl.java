@@ -0,0 +1,153 @@
+package com.gomitas.service.impl;
+
+import com.gomitas.dto.AuthDtos;
+import com.gomitas.entity.Usuario;
+import com.gomitas.exception.BadRequestException;
+import com.gomitas.exception.ResourceNotFoundException;
+import com.gomitas.repository.UsuarioRepository;
+import com.gomitas.security.UserStateCache;
+import com.gomitas.service.UsuarioService;
+import com.gomitas.service.impl.util.UsuarioMembershipIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UsuarioServiceImpl implements UsuarioService {
+
+    private final UsuarioRepository usuarioRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final UserStateCache userStateCache;
+    private final UsuarioMembershipIndex membershipIndex;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<AuthDtos.UserInfoDto> getAllUsuarios() {
+        return usuarioRepository.findAll().stream()
+                .map(this::mapToUserInfoDto)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<AuthDtos.UserInfoDto> getUsuarioById(Long id) {
+        return usuarioRepository.findById(id).map(this::mapToUserInfoDto);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<AuthDtos.UserInfoDto> getUsuarioByNombreUsuario(String nombreUsuario) {
+        return usuarioRepository.findByNombreUsuario(nombreUsuario).map(this::mapToUserInfoDto);
+    }
+
+    @Override
+    @Transactional
+    public AuthDtos.UserInfoDto createUsuario(Usuario usuario) {
+        if (membershipIndex.existsByNombreUsuario(usuario.getNombreUsuario())) {
+            throw new BadRequestException("Error: El nombre de usuario ya está en uso!");
+        }
+        if (usuario.getCorreo() != null && membershipIndex.existsByCorreo(usuario.getCorreo())) {
+            throw new BadRequestException("Error: El email ya está en uso!");
+        }
+
+        usuario.setPassword(passwordEncoder.encode(usuario.getPassword()));
+        Usuario savedUsuario;
+        try {
+            savedUsuario = usuarioRepository.save(usuario);
+        } catch (DataIntegrityViolationException e) {
+            throw UsuarioMembershipIndex.conflictoDeAlta(e);
+        }
+        membershipIndex.add(savedUsuario.getNombreUsuario(), savedUsuario.getCorreo());
+        return mapToUserInfoDto(savedUsuario);
+    }
+
+    @Override
+    @Transactional
+    public AuthDtos.UserInfoDto updateUsuario(Long id, Usuario usuarioActualizado) {
+        Usuario usuario = usuarioRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado con id: " + id));
+
+        boolean cambioDeSeguridad = false;
+
+        if (usuarioActualizado.getCorreo() != null) {
+            usuario.setCorreo(usuarioActualizado.getCorreo());
+            membershipIndex.add(null, usuarioActualizado.getCorreo());
+        }
+        if (usuarioActualizado.getRol() != null && usuarioActualizado.getRol() != usuario.getRol()) {
+            usuario.setRol(usuarioActualizado.getRol());
+            cambioDeSeguridad = true;
+        }
+        if (usuarioActualizado.getEstado() != null && !Objects.equals(usuarioActualizado.getEstado(), usuario.getEstado())) {
+            usuario.setEstado(usuarioActualizado.getEstado());
+            cambioDeSeguridad = true;
+        }
+        if (usuarioActualizado.getPassword() != null && !usuarioActualizado.getPassword().isBlank()) {
+            usuario.setPassword(passwordEncoder.encode(usuarioActualizado.getPassword()));
+            cambioDeSeguridad = true;
+        }
+
+        // Los tokens emitidos con el rol o estado anterior dejan de ser válidos
+        if (cambioDeSeguridad) {
+            usuario.setTokenVersion(usuario.getTokenVersion() + 1);
+        }
+
+        Usuario updatedUsuario = usuarioRepository.save(usuario);
+        userStateCache.invalidate(id);
+        return mapToUserInfoDto(updatedUsuario);
+    }
+
+    @Override
+    @Transactional
+    public void deleteUsuario(Long id) {
+        if (!usuarioRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Usuario no encontrado con id: " + id);
+        }
+        usuarioRepository.deleteById(id);
+        userStateCache.invalidate(id);
+    }
+
+    @Override
+    @Transactional
+    public void deactivateUsuario(Long id) {
+        Usuario usuario = usuarioRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado con id: " + id));
+        usuario.setEstado(false);
+        usuario.setTokenVersion(usuario.getTokenVersion() + 1);
+        usuarioRepository.save(usuario);
+        userStateCache.invalidate(id);
+        log.info("Usuario desactivado: {}", usuario.getNombreUsuario());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean existsByNombreUsuario(String nombreUsuario) {
+        return membershipIndex.existsByNombreUsuario(nombreUsuario);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean existsByCorreo(String correo) {
+        return membershipIndex.existsByCorreo(correo);
+    }
+
+    private AuthDtos.UserInfoDto mapToUserInfoDto(Usuario usuario) {
+        return AuthDtos.UserInfoDto.builder()
+                .usuarioId(usuario.getUsuarioId())
+                .nombreUsuario(usuario.getNombreUsuario())
+                .correo(usuario.getCorreo())
+                .rol(usuario.getRol())
+                .fechaRegistro(usuario.getFechaRegistro())
+                .estado(usuario.getEstado())
+                .build();
+    }
+}
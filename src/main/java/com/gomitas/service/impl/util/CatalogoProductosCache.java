@@ -0,0 +1,137 @@
+package com.gomitas.service.impl.util;
+
+import com.gomitas.dto.ProductoDtos;
+import com.gomitas.entity.Producto;
+import com.gomitas.repository.ProductoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Catálogo de productos en memoria, para que GET /api/productos no consulte la base de datos.
+ * Cada versión incluye su índice de búsqueda ({@link IndiceProductos}) sobre los productos activos.
+ *
+ * El catálogo es inmutable y se reemplaza completo: los lectores ven la versión anterior o la
+ * nueva, nunca una mezcla. Se reconstruye al confirmar cada alta, cambio o baja de producto y
+ * periódicamente, para recoger cambios hechos desde otras réplicas. La versión es un hash del
+ * contenido, así todas las réplicas con los mismos datos entregan el mismo ETag.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CatalogoProductosCache {
+
+    public record Catalogo(
+            String version,
+            List<ProductoDtos.ProductoResponseDto> todos,
+            List<ProductoDtos.ProductoResponseDto> activos,
+            Map<Long, ProductoDtos.ProductoResponseDto> porId,
+            IndiceProductos indice
+    ) {}
+
+    private static final Catalogo VACIO = new Catalogo("", List.of(), List.of(), Map.of(), new IndiceProductos(List.of()));
+
+    private final ProductoRepository productoRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final DisponibilidadTiendaCache disponibilidadTiendaCache;
+
+    private volatile Catalogo catalogo = VACIO;
+
+    public Catalogo actual() {
+        return catalogo;
+    }
+
+    public boolean cargado() {
+        return catalogo != VACIO;
+    }
+
+    /**
+     * Programa la reconstrucción para cuando confirme la transacción actual; un rollback no la dispara
+     */
+    public void recargarAlConfirmar() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            reconstruir();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                reconstruir();
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.catalogo.resyncMs:60000}", initialDelayString = "${app.catalogo.resyncMs:60000}")
+    public synchronized void reconstruir() {
+        // Transacción propia: tras el commit de otra, la lectura no debe participar en ella
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transactionTemplate.setReadOnly(true);
+
+        List<ProductoDtos.ProductoResponseDto> todos = transactionTemplate.execute(status ->
+                productoRepository.findAll().stream()
+                        .sorted(Comparator.comparing(Producto::getProductoId))
+                        .map(CatalogoProductosCache::aDto)
+                        .toList());
+
+        String version = version(todos);
+        if (version.equals(catalogo.version())) {
+            return;
+        }
+        List<ProductoDtos.ProductoResponseDto> activos = todos.stream().filter(p -> Boolean.TRUE.equals(p.estado())).toList();
+        this.catalogo = new Catalogo(
+                version,
+                todos,
+                activos,
+                todos.stream().collect(Collectors.toUnmodifiableMap(ProductoDtos.ProductoResponseDto::productoId, Function.identity())),
+                new IndiceProductos(activos));
+        disponibilidadTiendaCache.invalidar();
+        log.debug("Catálogo de productos reconstruido: {} productos, versión {}", todos.size(), version);
+    }
+
+    public static ProductoDtos.ProductoResponseDto aDto(Producto producto) {
+        return new ProductoDtos.ProductoResponseDto(
+                producto.getProductoId(),
+                producto.getNombre(),
+                producto.getDescripcion(),
+                producto.getPrecioUnitario(),
+                producto.getImageUrl(),
+                producto.getStockMinimo(),
+                producto.getFechaCreacion(),
+                producto.getEstado(),
+                producto.getEstadoImagen() != null ? producto.getEstadoImagen().name() : null
+        );
+    }
+
+    private static String version(List<ProductoDtos.ProductoResponseDto> productos) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (ProductoDtos.ProductoResponseDto producto : productos) {
+                digest.update(producto.toString().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+            }
+            return HexFormat.of().formatHex(digest.digest(), 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.gomitas.service.impl.util;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+
+/**
+ * {@link ImagenStorage} sobre Cloudinary, usando el cliente ya configurado en {@link CloudinaryServiceImpl}
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.imagenes.storage", havingValue = "cloudinary", matchIfMissing = true)
+public class CloudinaryImagenStorage implements ImagenStorage {
+
+    private final CloudinaryServiceImpl cloudinaryService;
+
+    @Override
+    public String subir(Path archivo, String carpeta) throws IOException {
+        Map<?, ?> uploadResult = cloudinaryService.uploadFile(new ArchivoPreparado(archivo), carpeta);
+        return (String) uploadResult.get("secure_url");
+    }
+
+    @Override
+    public void eliminar(String url) throws IOException {
+        String publicId = cloudinaryService.getPublicIdFromUrl(url);
+        if (publicId != null && !publicId.isEmpty()) {
+            cloudinaryService.deleteFile(publicId);
+        }
+    }
+
+    // Expone un archivo preparado en disco con la interfaz que espera CloudinaryServiceImpl
+    private record ArchivoPreparado(Path ruta) implements MultipartFile {
+
+        @Override
+        public String getName() {
+            return "imagen";
+        }
+
+        @Override
+        public String getOriginalFilename() {
+            return ruta.getFileName().toString();
+        }
+
+        @Override
+        public String getContentType() {
+            try {
+                return Files.probeContentType(ruta);
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return getSize() == 0;
+        }
+
+        @Override
+        public long getSize() {
+            try {
+                return Files.size(ruta);
+            } catch (IOException e) {
+                return 0;
+            }
+        }
+
+        @Override
+        public byte[] getBytes() throws IOException {
+            return Files.readAllBytes(ruta);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return Files.newInputStream(ruta);
+        }
+
+        @Override
+        public void transferTo(File destino) throws IOException {
+            Files.copy(ruta, destino.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.gomitas.service.impl.util;
+
+import com.gomitas.dto.ProductoDtos;
+import com.gomitas.repository.ProductoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Vista de la tienda: productos activos con su disponibilidad, armada con una sola consulta.
+ *
+ * Se guarda por poco tiempo (app.tienda.ttlMs) y se invalida al confirmar cualquier cambio de
+ * stock hecho por {@link StockMutationEngine} o cuando cambia el catálogo. Los productos hot
+ * toman el saldo de {@link HotStockCounters}, que va por delante de la tabla.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DisponibilidadTiendaCache {
+
+    private record Vista(List<ProductoDtos.ProductoTiendaDto> productos, long cargadaEn) {}
+
+    private final ProductoRepository productoRepository;
+    private final HotStockCounters hotStockCounters;
+
+    @Value("${app.tienda.ttlMs:5000}")
+    private long ttlMs;
+
+    private volatile Vista vista;
+
+    public List<ProductoDtos.ProductoTiendaDto> productos() {
+        Vista actual = vista;
+        if (vigente(actual)) {
+            return actual.productos();
+        }
+        synchronized (this) {
+            // Otro hilo pudo recargarla mientras se esperaba el bloqueo
+            actual = vista;
+            if (!vigente(actual)) {
+                actual = new Vista(cargar(), System.currentTimeMillis());
+                vista = actual;
+            }
+            return actual.productos();
+        }
+    }
+
+    public void invalidar() {
+        vista = null;
+    }
+
+    /**
+     * Invalida la vista cuando confirme la transacción actual; un rollback no cambia el stock
+     */
+    public void invalidarAlConfirmar() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidar();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidar();
+            }
+        });
+    }
+
+    private boolean vigente(Vista actual) {
+        return actual != null && System.currentTimeMillis() - actual.cargadaEn() < ttlMs;
+    }
+
+    private List<ProductoDtos.ProductoTiendaDto> cargar() {
+        List<ProductoDtos.ProductoTiendaDto> productos = productoRepository.findDisponibilidadTienda().stream()
+                .map(fila -> {
+                    HotStockCounters.Saldo saldo = hotStockCounters.saldo(fila.getProductoId())
+                            .orElse(new HotStockCounters.Saldo(
+                                    Objects.requireNonNullElse(fila.getCantidadDisponible(), 0),
+                                    Objects.requireNonNullElse(fila.getCantidadReservada(), 0)));
+                    int disponible = Math.max(0, saldo.disponible() - saldo.reservada());
+                    int stockMinimo = Objects.requireNonNullElse(fila.getStockMinimo(), 0);
+                    return new ProductoDtos.ProductoTiendaDto(
+                            fila.getProductoId(),
+                            fila.getNombre(),
+                            fila.getDescripcion(),
+                            fila.getPrecioUnitario(),
+                            fila.getImageUrl(),
+                            disponible,
+                            disponible < stockMinimo);
+                })
+                .toList();
+        log.debug("Vista de la tienda recargada: {} productos", productos.size());
+        return productos;
+    }
+}
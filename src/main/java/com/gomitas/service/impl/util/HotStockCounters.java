@@ -0,0 +1,250 @@
+package com.gomitas.service.impl.util;
+
+import com.gomitas.entity.InventarioProducto;
+import com.gomitas.entity.MovimientoInventario;
+import com.gomitas.repository.InventarioProductoRepository;
+import com.gomitas.repository.MovimientoInventarioRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Saldos en memoria de los productos más vendidos ("hot"), para sacar del checkout
+ * los bloqueos de fila sobre inventario_producto.
+ *
+ * Cada producto ocupa una ranura propia de un AtomicLongArray, separada de las demás por una
+ * línea de caché, con disponible y reservado empaquetados en un solo long: reservar, consumir
+ * y liberar son un compareAndSet con las mismas condiciones que los UPDATE de la base de datos.
+ * Si la transacción que hizo el cambio se revierte, el cambio se deshace en memoria.
+ *
+ * La durabilidad viene de movimiento_inventario (aplicado = false) y de reserva_stock;
+ * el volcado periódico suma los movimientos pendientes al saldo de la tabla en un UPDATE por
+ * producto. Cada volcado toma sus movimientos con FOR UPDATE SKIP LOCKED, así que dos volcados
+ * simultáneos no aplican dos veces el mismo movimiento. Al arrancar se vuelca lo pendiente y se
+ * cargan los saldos ya consolidados; el volcado programado espera a que termine esa carga.
+ * Los saldos viven en una sola instancia: el modo solo debe activarse con una réplica.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HotStockCounters {
+
+    // 8 longs = 64 bytes: cada producto en su propia línea de caché
+    private static final int STRIDE = 8;
+
+    public record Saldo(int disponible, int reservada) {}
+
+    private final InventarioProductoRepository inventarioRepository;
+    private final MovimientoInventarioRepository movimientoRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.hotStock.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.hotStock.productoIds:}")
+    private Set<Long> productoIds;
+
+    @Value("${app.hotStock.flushBatchSize:1000}")
+    private int flushBatchSize;
+
+    private volatile Map<Long, Integer> ranuras = Map.of();
+    private AtomicLongArray saldos;
+    private volatile boolean cargado;
+
+    public boolean esHot(Long productoId) {
+        return ranuras.containsKey(productoId);
+    }
+
+    public Optional<Saldo> saldo(Long productoId) {
+        Integer ranura = ranuras.get(productoId);
+        if (ranura == null) {
+            return Optional.empty();
+        }
+        long valor = saldos.get(ranura);
+        return Optional.of(new Saldo(disponible(valor), reservada(valor)));
+    }
+
+    /**
+     * Descuenta cantidad (de la que reservada ya estaba apartada) si alcanza sin tocar otras reservas
+     *
+     * @return la cantidad disponible que dejó este descuento, o vacío si no alcanzaba
+     */
+    public OptionalInt consumir(Long productoId, int cantidad, int reservada) {
+        int ranura = ranuras.get(productoId);
+        while (true) {
+            long actual = saldos.get(ranura);
+            int disp = disponible(actual);
+            int res = reservada(actual);
+            if (res < reservada || disp - res + reservada < cantidad) {
+                return OptionalInt.empty();
+            }
+            if (saldos.compareAndSet(ranura, actual, pack(disp - cantidad, res - reservada))) {
+                alRevertir(ranura, v -> pack(disponible(v) + cantidad, reservada(v) + reservada));
+                return OptionalInt.of(disp - cantidad);
+            }
+        }
+    }
+
+    /**
+     * Aparta cantidad si el disponible para prometer alcanza
+     */
+    public boolean reservar(Long productoId, int cantidad) {
+        int ranura = ranuras.get(productoId);
+        while (true) {
+            long actual = saldos.get(ranura);
+            int disp = disponible(actual);
+            int res = reservada(actual);
+            if (disp - res < cantidad) {
+                return false;
+            }
+            if (saldos.compareAndSet(ranura, actual, pack(disp, res + cantidad))) {
+                alRevertir(ranura, v -> pack(disponible(v), reservada(v) - cantidad));
+                return true;
+            }
+        }
+    }
+
+    public void liberar(Long productoId, int cantidad) {
+        int ranura = ranuras.get(productoId);
+        long anterior = saldos.getAndUpdate(ranura, v -> pack(disponible(v), Math.max(0, reservada(v) - cantidad)));
+        int liberada = Math.min(cantidad, reservada(anterior));
+        alRevertir(ranura, v -> pack(disponible(v), reservada(v) + liberada));
+    }
+
+    /**
+     * @return la cantidad disponible tras el incremento
+     */
+    public int incrementar(Long productoId, int cantidad) {
+        int ranura = ranuras.get(productoId);
+        long nuevo = saldos.updateAndGet(ranura, v -> pack(disponible(v) + cantidad, reservada(v)));
+        alRevertir(ranura, v -> pack(disponible(v) - cantidad, reservada(v)));
+        return disponible(nuevo);
+    }
+
+    /**
+     * @return la cantidad disponible antes del ajuste
+     */
+    public int ajustar(Long productoId, int cantidad) {
+        int ranura = ranuras.get(productoId);
+        long anterior = saldos.getAndUpdate(ranura, v -> pack(cantidad, reservada(v)));
+        int delta = cantidad - disponible(anterior);
+        alRevertir(ranura, v -> pack(disponible(v) - delta, reservada(v)));
+        return disponible(anterior);
+    }
+
+    /**
+     * Vuelca los movimientos pendientes al saldo de la tabla y carga los saldos en memoria
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        if (!enabled || productoIds.isEmpty()) {
+            return;
+        }
+        while (volcar() == flushBatchSize) {
+            // Sigue hasta consumir toda la cola de movimientos pendientes
+        }
+
+        Map<Long, Integer> nuevasRanuras = new HashMap<>();
+        AtomicLongArray nuevosSaldos = new AtomicLongArray(productoIds.size() * STRIDE);
+        transactionTemplate.executeWithoutResult(status -> {
+            for (InventarioProducto inventario : inventarioRepository.findByProductoIdIn(productoIds)) {
+                int ranura = nuevasRanuras.size() * STRIDE;
+                nuevasRanuras.put(inventario.getProducto().getProductoId(), ranura);
+                nuevosSaldos.set(ranura, pack(inventario.getCantidadDisponible(), inventario.getCantidadReservada()));
+            }
+        });
+
+        this.saldos = nuevosSaldos;
+        this.ranuras = Map.copyOf(nuevasRanuras);
+        this.cargado = true;
+        log.info("Saldos en memoria activos para {} productos hot", nuevasRanuras.size());
+    }
+
+    @Scheduled(fixedDelayString = "${app.hotStock.flushMs:1000}")
+    public void volcarPendientes() {
+        // Hasta que cargar() termine, el volcado de arranque es el único que corre
+        if (!cargado) {
+            return;
+        }
+        volcar();
+    }
+
+    /**
+     * Suma al saldo de la tabla los movimientos pendientes, con un UPDATE por producto
+     *
+     * @return cantidad de movimientos aplicados
+     */
+    private int volcar() {
+        if (!enabled) {
+            return 0;
+        }
+        Integer aplicados = transactionTemplate.execute(status -> {
+            // Las reservas no generan movimientos: lo reservado se recalcula desde reserva_stock en cada volcado
+            if (!productoIds.isEmpty()) {
+                inventarioRepository.sincronizarReservas(productoIds);
+            }
+
+            List<Long> ids = movimientoRepository.bloquearPendientes(flushBatchSize);
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            List<MovimientoInventario> pendientes = movimientoRepository.findAllByIdWithProducto(ids);
+
+            Map<Long, Integer> deltaPorProducto = new TreeMap<>();
+            for (MovimientoInventario movimiento : pendientes) {
+                deltaPorProducto.merge(movimiento.getProducto().getProductoId(), movimiento.getDelta(), Integer::sum);
+            }
+            // Los movimientos siguen bloqueados por esta transacción: ninguno pudo aplicarse en otro volcado
+            int marcados = movimientoRepository.marcarAplicados(ids);
+            if (marcados != ids.size()) {
+                throw new IllegalStateException("Movimientos ya aplicados por otro volcado: " + (ids.size() - marcados));
+            }
+            deltaPorProducto.forEach(inventarioRepository::incrementar);
+            return ids.size();
+        });
+        if (aplicados != null && aplicados > 0) {
+            log.debug("Movimientos de productos hot volcados: {}", aplicados);
+        }
+        return aplicados != null ? aplicados : 0;
+    }
+
+    private void alRevertir(int ranura, LongUnaryOperator deshacer) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    saldos.updateAndGet(ranura, deshacer);
+                }
+            }
+        });
+    }
+
+    private static long pack(int disponible, int reservada) {
+        return ((long) reservada << 32) | (disponible & 0xFFFFFFFFL);
+    }
+
+    private static int disponible(long valor) {
+        return (int) valor;
+    }
+
+    private static int reservada(long valor) {
+        return (int) (valor >>> 32);
+    }
+}
@@ -0,0 +1,21 @@
+package com.gomitas.service.impl.util;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Almacenamiento de imágenes de productos. La implementación se elige con app.imagenes.storage
+ * (cloudinary por defecto, local para pruebas y desarrollo).
+ */
+public interface ImagenStorage {
+
+    /**
+     * Sube el archivo y devuelve la URL pública con la que se sirve
+     */
+    String subir(Path archivo, String carpeta) throws IOException;
+
+    /**
+     * Elimina la imagen publicada en la URL; una URL que no pertenece a este almacenamiento se ignora
+     */
+    void eliminar(String url) throws IOException;
+}
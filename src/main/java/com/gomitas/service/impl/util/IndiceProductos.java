@@ -0,0 +1,194 @@
+package com.gomitas.service.impl.util;
+
+import com.gomitas.dto.ProductoDtos;
+import com.gomitas.enums.OrdenProducto;
+
+import java.math.BigDecimal;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/**
+ * Índice invertido inmutable sobre nombre y descripción de los productos activos.
+ *
+ * Los términos se normalizan sin tildes y en minúsculas ("Gomitas de Maracuyá" → gomitas, de,
+ * maracuya) y se guardan ordenados, así una búsqueda por prefijo es un rango contiguo del
+ * diccionario que se encuentra con una búsqueda binaria. Cada término apunta a las posiciones
+ * de sus productos; varias palabras se combinan con AND sobre un BitSet.
+ *
+ * Para cada orden se precalcula la permutación de productos: una página se arma recorriendo esa
+ * permutación desde el cursor y saltando lo que no coincide, sin ordenar en cada consulta.
+ * Se construye junto con cada versión del catálogo y no se modifica después.
+ */
+public final class IndiceProductos {
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    /**
+     * Posición de un producto en un orden; el cursor de paginación guarda la del último devuelto
+     */
+    public record Clave(long productoId, BigDecimal precio, String nombre) {}
+
+    public record Consulta(String texto, BigDecimal precioMin, BigDecimal precioMax, OrdenProducto orden,
+                           Clave despuesDe, int limite) {}
+
+    /**
+     * @param ultima clave del último producto devuelto, para el cursor; null si hayMas es false
+     */
+    public record Resultado(List<ProductoDtos.ProductoResponseDto> productos, int total, Clave ultima, boolean hayMas) {}
+
+    private final List<ProductoDtos.ProductoResponseDto> productos;
+    private final Clave[] claves;
+    private final String[] terminos;
+    private final int[][] posiciones;
+    private final Map<OrdenProducto, int[]> permutaciones = new EnumMap<>(OrdenProducto.class);
+
+    public IndiceProductos(List<ProductoDtos.ProductoResponseDto> productos) {
+        this.productos = List.copyOf(productos);
+        int n = this.productos.size();
+
+        this.claves = new Clave[n];
+        Map<String, List<Integer>> diccionario = new TreeMap<>();
+        for (int i = 0; i < n; i++) {
+            ProductoDtos.ProductoResponseDto producto = this.productos.get(i);
+            claves[i] = new Clave(producto.productoId(), producto.precioUnitario(), normalizar(producto.nombre()));
+
+            Set<String> terminosProducto = new LinkedHashSet<>(tokenizar(producto.nombre()));
+            terminosProducto.addAll(tokenizar(producto.descripcion()));
+            for (String termino : terminosProducto) {
+                diccionario.computeIfAbsent(termino, t -> new ArrayList<>()).add(i);
+            }
+        }
+
+        this.terminos = diccionario.keySet().toArray(String[]::new);
+        this.posiciones = diccionario.values().stream()
+                .map(lista -> lista.stream().mapToInt(Integer::intValue).toArray())
+                .toArray(int[][]::new);
+
+        for (OrdenProducto orden : OrdenProducto.values()) {
+            Comparator<Clave> comparador = comparador(orden);
+            permutaciones.put(orden, IntStream.range(0, n).boxed()
+                    .sorted((a, b) -> comparador.compare(claves[a], claves[b]))
+                    .mapToInt(Integer::intValue)
+                    .toArray());
+        }
+    }
+
+    public Resultado buscar(Consulta consulta) {
+        BitSet coincidencias = coincidencias(consulta.texto());
+        Comparator<Clave> comparador = comparador(consulta.orden());
+        int[] permutacion = permutaciones.get(consulta.orden());
+
+        int desde = consulta.despuesDe() == null ? 0 : primeraPosterior(permutacion, comparador, consulta.despuesDe());
+        List<ProductoDtos.ProductoResponseDto> pagina = new ArrayList<>(consulta.limite());
+        Clave ultima = null;
+        boolean hayMas = false;
+        int total = 0;
+        for (int i = 0; i < permutacion.length; i++) {
+            int posicion = permutacion[i];
+            if ((coincidencias != null && !coincidencias.get(posicion)) || !enRango(claves[posicion].precio(), consulta)) {
+                continue;
+            }
+            total++;
+            if (i < desde) {
+                continue;
+            }
+            if (pagina.size() < consulta.limite()) {
+                pagina.add(productos.get(posicion));
+                ultima = claves[posicion];
+            } else {
+                hayMas = true;
+            }
+        }
+        return new Resultado(pagina, total, hayMas ? ultima : null, hayMas);
+    }
+
+    /**
+     * @return los productos que contienen todas las palabras (como prefijo), o null si no hay texto
+     */
+    private BitSet coincidencias(String texto) {
+        List<String> palabras = tokenizar(texto);
+        if (palabras.isEmpty()) {
+            return null;
+        }
+        BitSet resultado = null;
+        for (String palabra : new LinkedHashSet<>(palabras)) {
+            BitSet conPalabra = new BitSet(productos.size());
+            int desde = Arrays.binarySearch(terminos, palabra);
+            for (int t = desde >= 0 ? desde : -desde - 1; t < terminos.length && terminos[t].startsWith(palabra); t++) {
+                for (int posicion : posiciones[t]) {
+                    conPalabra.set(posicion);
+                }
+            }
+            if (resultado == null) {
+                resultado = conPalabra;
+            } else {
+                resultado.and(conPalabra);
+            }
+            if (resultado.isEmpty()) {
+                break;
+            }
+        }
+        return resultado;
+    }
+
+    // Primera posición de la permutación estrictamente posterior a la clave del cursor
+    private int primeraPosterior(int[] permutacion, Comparator<Clave> comparador, Clave despuesDe) {
+        int bajo = 0;
+        int alto = permutacion.length;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (comparador.compare(claves[permutacion[medio]], despuesDe) <= 0) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+
+    private static boolean enRango(BigDecimal precio, Consulta consulta) {
+        return (consulta.precioMin() == null || precio.compareTo(consulta.precioMin()) >= 0)
+                && (consulta.precioMax() == null || precio.compareTo(consulta.precioMax()) <= 0);
+    }
+
+    private static Comparator<Clave> comparador(OrdenProducto orden) {
+        Comparator<Clave> porId = Comparator.comparingLong(Clave::productoId);
+        return switch (orden) {
+            case NOMBRE -> Comparator.comparing(Clave::nombre).thenComparing(porId);
+            case PRECIO_ASC -> Comparator.comparing(Clave::precio).thenComparing(porId);
+            case PRECIO_DESC -> Comparator.comparing(Clave::precio, Comparator.reverseOrder()).thenComparing(porId);
+            case NUEVOS -> porId.reversed();
+        };
+    }
+
+    private static List<String> tokenizar(String texto) {
+        String normalizado = normalizar(texto);
+        if (normalizado.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(SEPARADORES.split(normalizado))
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+
+    // Sin tildes ni diéresis y en minúsculas; la ñ también pasa a n
+    private static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        return MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,49 @@
+package com.gomitas.service.impl.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * {@link ImagenStorage} en el sistema de archivos local, para pruebas y desarrollo sin Cloudinary.
+ * Las imágenes quedan en app.imagenes.local.dir y se publican bajo app.imagenes.local.urlBase.
+ */
+@Component
+@ConditionalOnProperty(name = "app.imagenes.storage", havingValue = "local")
+public class LocalImagenStorage implements ImagenStorage {
+
+    private final Path directorio;
+    private final String urlBase;
+
+    public LocalImagenStorage(@Value("${app.imagenes.local.dir:imagenes}") String directorio,
+                              @Value("${app.imagenes.local.urlBase:/imagenes}") String urlBase) {
+        this.directorio = Paths.get(directorio).toAbsolutePath().normalize();
+        this.urlBase = urlBase.endsWith("/") ? urlBase.substring(0, urlBase.length() - 1) : urlBase;
+    }
+
+    @Override
+    public String subir(Path archivo, String carpeta) throws IOException {
+        Path destino = directorio.resolve(carpeta).resolve(archivo.getFileName()).normalize();
+        Files.createDirectories(destino.getParent());
+        Files.copy(archivo, destino, StandardCopyOption.REPLACE_EXISTING);
+        return urlBase + "/" + directorio.relativize(destino).toString().replace('\\', '/');
+    }
+
+    @Override
+    public void eliminar(String url) throws IOException {
+        if (url == null || !url.startsWith(urlBase + "/")) {
+            return;
+        }
+        Path archivo = directorio.resolve(url.substring(urlBase.length() + 1)).normalize();
+        // Nunca borrar fuera del directorio de imágenes
+        if (archivo.startsWith(directorio)) {
+            Files.deleteIfExists(archivo);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.gomitas.service.impl.util;
+
+import com.gomitas.enums.EstadoPedido;
+import com.gomitas.repository.PedidoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Cantidad de pedidos por estado en memoria, para que el dashboard no recorra la tabla pedido.
+ *
+ * Los cambios se aplican al confirmar la transacción que los hizo, así un rollback no los cuenta.
+ * Se reconstruyen al arrancar con un GROUP BY y se recalculan periódicamente, lo que corrige la
+ * deriva entre réplicas o de cambios hechos fuera de la aplicación.
+ *
+ * Para que el recálculo no pierda ni cuente dos veces un cambio de esta instancia, cada transacción
+ * toma el lock de lectura desde beforeCommit hasta después de aplicar su cambio; el recálculo toma
+ * el de escritura, así ninguna transacción confirma mientras corre el GROUP BY y todas las que ya
+ * confirmaron aplicaron su cambio antes. El costo es que esas confirmaciones esperan lo que tarde
+ * la consulta. Los cambios de otras réplicas solo se ven al recalcular: entre recálculos, con
+ * varias réplicas, los valores son aproximados.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PedidoEstadoCounters {
+
+    private final PedidoRepository pedidoRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<EstadoPedido, AtomicLong> contadores = crearContadores();
+
+    // Lectura: confirmar y aplicar un cambio (varios a la vez); escritura: recalcular
+    private final ReadWriteLock recalculo = new ReentrantReadWriteLock();
+
+    public long cantidad(EstadoPedido estado) {
+        return contadores.get(estado).get();
+    }
+
+    public Map<EstadoPedido, Long> todos() {
+        Map<EstadoPedido, Long> copia = new EnumMap<>(EstadoPedido.class);
+        contadores.forEach((estado, contador) -> copia.put(estado, contador.get()));
+        return copia;
+    }
+
+    public void registrarAlta(EstadoPedido estado) {
+        alConfirmar(() -> contadores.get(estado).incrementAndGet());
+    }
+
+    public void registrarTransicion(EstadoPedido origen, EstadoPedido destino) {
+        if (origen == destino) {
+            return;
+        }
+        alConfirmar(() -> {
+            contadores.get(origen).decrementAndGet();
+            contadores.get(destino).incrementAndGet();
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.pedidos.contadores.resyncMs:300000}", initialDelayString = "${app.pedidos.contadores.resyncMs:300000}")
+    public void recalcular() {
+        Map<EstadoPedido, Long> conteo = new EnumMap<>(EstadoPedido.class);
+        // Espera a que las transacciones en confirmación apliquen su cambio y frena las nuevas hasta el set
+        recalculo.writeLock().lock();
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    pedidoRepository.contarPorEstado().forEach(fila -> conteo.merge(fila.getEstado(), fila.getCantidad(), Long::sum)));
+
+            contadores.forEach((estado, contador) -> contador.set(conteo.getOrDefault(estado, 0L)));
+        } finally {
+            recalculo.writeLock().unlock();
+        }
+        log.debug("Contadores de pedidos por estado recalculados: {}", conteo);
+    }
+
+    private void alConfirmar(Runnable cambio) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            aplicar(cambio);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean bloqueado;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                recalculo.readLock().lock();
+                bloqueado = true;
+            }
+
+            @Override
+            public void afterCommit() {
+                cambio.run();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (bloqueado) {
+                    bloqueado = false;
+                    recalculo.readLock().unlock();
+                }
+            }
+        });
+    }
+
+    private void aplicar(Runnable cambio) {
+        recalculo.readLock().lock();
+        try {
+            cambio.run();
+        } finally {
+            recalculo.readLock().unlock();
+        }
+    }
+
+    private static Map<EstadoPedido, AtomicLong> crearContadores() {
+        Map<EstadoPedido, AtomicLong> mapa = new EnumMap<>(EstadoPedido.class);
+        for (EstadoPedido estado : EstadoPedido.values()) {
+            mapa.put(estado, new AtomicLong());
+        }
+        return mapa;
+    }
+}
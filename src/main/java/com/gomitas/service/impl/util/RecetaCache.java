@@ -0,0 +1,69 @@
+package com.gomitas.service.impl.util;
+
+import com.gomitas.repository.ProductoInsumoRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Recetas (insumos por producto) en memoria, por productoId.
+ *
+ * Una receta se carga con una consulta la primera vez que se pide y se descarta al confirmar un
+ * cambio de la receta o de un insumo. La carga y el descarte de un mismo producto se serializan en
+ * el mapa, así una lectura que empezó antes del commit no deja la receta vieja en la caché.
+ */
+@Component
+@RequiredArgsConstructor
+public class RecetaCache {
+
+    public record Linea(Long insumoId, String nombreInsumo, BigDecimal cantidadRequerida, String unidad) {}
+
+    private final ProductoInsumoRepository productoInsumoRepository;
+
+    private final Map<Long, List<Linea>> recetas = new ConcurrentHashMap<>();
+
+    /**
+     * @return las líneas de la receta; vacía si el producto no tiene receta
+     */
+    public List<Linea> receta(Long productoId) {
+        return recetas.computeIfAbsent(productoId, this::cargar);
+    }
+
+    public void invalidarAlConfirmar(Long productoId) {
+        alConfirmar(() -> recetas.remove(productoId));
+    }
+
+    // Cambió el nombre o la unidad de un insumo, que se copian en las líneas
+    public void invalidarTodoAlConfirmar() {
+        alConfirmar(recetas::clear);
+    }
+
+    private List<Linea> cargar(Long productoId) {
+        return productoInsumoRepository.findByProductoIdWithInsumo(productoId).stream()
+                .map(item -> new Linea(
+                        item.getInsumo().getInsumoId(),
+                        item.getInsumo().getNombre(),
+                        item.getCantidadRequerida(),
+                        item.getUnidad()))
+                .toList();
+    }
+
+    private void alConfirmar(Runnable cambio) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cambio.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cambio.run();
+            }
+        });
+    }
+}
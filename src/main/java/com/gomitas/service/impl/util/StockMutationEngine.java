@@ -0,0 +1,190 @@
+package com.gomitas.service.impl.util;
+
+import com.gomitas.entity.InventarioProducto;
+import com.gomitas.exception.ResourceNotFoundException;
+import com.gomitas.repository.InventarioProductoRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.TreeMap;
+
+/**
+ * Aplica los cambios de stock de productos como UPDATE condicionales en la base de datos,
+ * en lugar de leer la cantidad, restar en Java y guardar.
+ *
+ * Un descuento solo se aplica si hay stock suficiente en ese momento (la fila queda bloqueada
+ * por el UPDATE hasta el commit), así dos despachos concurrentes no pueden vender de más ni
+ * pisarse. Las líneas se procesan por productoId ascendente para que transacciones con
+ * varios productos tomen los bloqueos siempre en el mismo orden y no se produzcan deadlocks.
+ * Debe llamarse dentro de una transacción: si alguna línea falla, el llamador lanza
+ * una excepción y el rollback deshace los descuentos ya aplicados.
+ *
+ * Los productos configurados como "hot" se resuelven en {@link HotStockCounters} sin tocar la
+ * fila; en ese caso el llamador debe registrar el MovimientoInventario con aplicado = false
+ * (ver {@link #esHot}) para que el cambio sea durable.
+ *
+ * Cada cambio invalida, al confirmar, la vista de disponibilidad de la tienda.
+ */
+@Component
+@RequiredArgsConstructor
+@Transactional(propagation = Propagation.MANDATORY)
+public class StockMutationEngine {
+
+    private final InventarioProductoRepository inventarioRepository;
+    private final HotStockCounters hotStockCounters;
+    private final DisponibilidadTiendaCache disponibilidadTiendaCache;
+
+    public record Linea(Long productoId, int cantidad) {}
+
+    /**
+     * @param disponibleHot cantidad disponible que dejó el descuento de cada producto hot, tomada del
+     *                      mismo compareAndSet: leerla después puede incluir cambios de otros hilos
+     */
+    public record Resultado(List<Linea> fallidas, Map<Long, Integer> disponibleHot) {
+        public Resultado(List<Linea> fallidas) {
+            this(fallidas, Map.of());
+        }
+
+        public boolean exitoso() {
+            return fallidas.isEmpty();
+        }
+    }
+
+    public boolean esHot(Long productoId) {
+        return hotStockCounters.esHot(productoId);
+    }
+
+    /**
+     * Descuenta todas las líneas sin reservas previas; respeta lo reservado por otros pedidos.
+     *
+     * @return las líneas (agrupadas por producto) que no tenían stock suficiente o sin inventario
+     */
+    public Resultado decrementar(Collection<Linea> lineas) {
+        return consumir(lineas, Map.of());
+    }
+
+    /**
+     * Descuenta las líneas de un pedido usando primero sus reservas; las líneas de un mismo
+     * producto se agrupan en un solo UPDATE que baja a la vez el disponible y lo reservado.
+     *
+     * @param reservadoPorProducto unidades ya apartadas (y reclamadas) para este pedido
+     * @return las líneas (agrupadas por producto) que no tenían stock suficiente o sin inventario
+     */
+    public Resultado consumir(Collection<Linea> lineas, Map<Long, Integer> reservadoPorProducto) {
+        disponibilidadTiendaCache.invalidarAlConfirmar();
+        List<Linea> fallidas = new ArrayList<>();
+        Map<Long, Integer> disponibleHot = new HashMap<>();
+        agrupar(lineas).forEach((productoId, cantidad) -> {
+            int reservada = Math.min(cantidad, reservadoPorProducto.getOrDefault(productoId, 0));
+            boolean aplicado;
+            if (hotStockCounters.esHot(productoId)) {
+                OptionalInt disponible = hotStockCounters.consumir(productoId, cantidad, reservada);
+                disponible.ifPresent(d -> disponibleHot.put(productoId, d));
+                aplicado = disponible.isPresent();
+            } else {
+                aplicado = inventarioRepository.consumirSiDisponible(productoId, cantidad, reservada) > 0;
+            }
+            if (!aplicado) {
+                fallidas.add(new Linea(productoId, cantidad));
+            }
+        });
+        return new Resultado(fallidas, disponibleHot);
+    }
+
+    /**
+     * Aparta stock para las líneas que caben en el disponible para prometer.
+     *
+     * @return las líneas (agrupadas por producto) que no se pudieron reservar
+     */
+    public Resultado reservar(Collection<Linea> lineas) {
+        disponibilidadTiendaCache.invalidarAlConfirmar();
+        List<Linea> fallidas = new ArrayList<>();
+        agrupar(lineas).forEach((productoId, cantidad) -> {
+            boolean aplicado = hotStockCounters.esHot(productoId)
+                    ? hotStockCounters.reservar(productoId, cantidad)
+                    : inventarioRepository.reservarSiDisponible(productoId, cantidad) > 0;
+            if (!aplicado) {
+                fallidas.add(new Linea(productoId, cantidad));
+            }
+        });
+        return new Resultado(fallidas);
+    }
+
+    /**
+     * Devuelve al disponible para prometer unidades reservadas (cancelación o expiración)
+     */
+    public void liberar(Collection<Linea> lineas) {
+        disponibilidadTiendaCache.invalidarAlConfirmar();
+        agrupar(lineas).forEach((productoId, cantidad) -> {
+            if (hotStockCounters.esHot(productoId)) {
+                hotStockCounters.liberar(productoId, cantidad);
+            } else {
+                inventarioRepository.liberarReserva(productoId, cantidad);
+            }
+        });
+    }
+
+    /**
+     * Suma stock al producto
+     *
+     * @return la cantidad disponible tras el incremento
+     */
+    public int incrementar(Long productoId, int cantidad) {
+        disponibilidadTiendaCache.invalidarAlConfirmar();
+        if (hotStockCounters.esHot(productoId)) {
+            return hotStockCounters.incrementar(productoId, cantidad);
+        }
+        if (inventarioRepository.incrementar(productoId, cantidad) == 0) {
+            throw new ResourceNotFoundException("Inventario no encontrado para el producto con id: " + productoId);
+        }
+        return cantidadDisponible(productoId);
+    }
+
+    /**
+     * Fija el stock a un valor absoluto bloqueando la fila
+     *
+     * @return la cantidad disponible antes del ajuste
+     */
+    public int ajustar(Long productoId, int cantidad) {
+        disponibilidadTiendaCache.invalidarAlConfirmar();
+        if (hotStockCounters.esHot(productoId)) {
+            return hotStockCounters.ajustar(productoId, cantidad);
+        }
+        InventarioProducto inventario = inventarioRepository.findByProductoIdForUpdate(productoId)
+                .orElseThrow(() -> new ResourceNotFoundException("Inventario no encontrado para el producto con id: " + productoId));
+        int anterior = inventario.getCantidadDisponible();
+        inventario.setCantidadDisponible(cantidad);
+        inventarioRepository.save(inventario);
+        return anterior;
+    }
+
+    /**
+     * Lee la cantidad actual; tras un UPDATE propio la fila está bloqueada y el valor es estable
+     */
+    public int cantidadDisponible(Long productoId) {
+        Optional<HotStockCounters.Saldo> saldo = hotStockCounters.saldo(productoId);
+        if (saldo.isPresent()) {
+            return saldo.get().disponible();
+        }
+        return inventarioRepository.findCantidadDisponibleByProductoId(productoId)
+                .orElseThrow(() -> new ResourceNotFoundException("Inventario no encontrado para el producto con id: " + productoId));
+    }
+
+    // Suma las líneas por producto en orden ascendente de productoId (orden fijo de bloqueo)
+    private static Map<Long, Integer> agrupar(Collection<Linea> lineas) {
+        Map<Long, Integer> porProducto = new TreeMap<>();
+        for (Linea linea : lineas) {
+            porProducto.merge(linea.productoId(), linea.cantidad(), Integer::sum);
+        }
+        return porProducto;
+    }
+}
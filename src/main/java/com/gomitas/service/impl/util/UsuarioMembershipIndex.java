@@ -0,0 +1,125 @@
+package com.gomitas.service.impl.util;
+
+import com.gomitas.exception.BadRequestException;
+import com.gomitas.repository.UsuarioRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Índice en memoria de nombres de usuario y correos registrados.
+ * Un filtro de Bloom responde los "no existe" sin ir a la base de datos;
+ * los "quizás existe" se confirman con la consulta exists del repositorio.
+ * Se reconstruye periódicamente para recoger altas hechas desde otras instancias, pero entre
+ * reconstrucciones solo conoce las altas de esta instancia: el "no existe" es exacto con una sola
+ * instancia. Con varias, la restricción unique de la tabla sigue siendo la garantía y quien da de
+ * alta debe traducir su violación con {@link #conflictoDeAlta}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UsuarioMembershipIndex {
+
+    private final UsuarioRepository usuarioRepository;
+
+    @Value("${app.membershipIndex.expectedInsertions:200000}")
+    private int expectedInsertions;
+
+    private volatile BloomFilter nombresUsuario;
+    private volatile BloomFilter correos;
+
+    // add() y el cambio de filtro en rebuild() se serializan con este monitor
+    private final Object cambioDeFiltro = new Object();
+
+    // Altas desde que empezó la última reconstrucción: pueden no estar confirmadas cuando
+    // rebuild() lee la tabla, así que se vuelven a cargar en el filtro nuevo
+    private Queue<String[]> altasRecientes = new ArrayDeque<>();
+
+    public boolean existsByNombreUsuario(String nombreUsuario) {
+        BloomFilter filtro = nombresUsuario;
+        if (filtro != null && !filtro.mightContain(nombreUsuario)) {
+            return false;
+        }
+        return usuarioRepository.existsByNombreUsuario(nombreUsuario);
+    }
+
+    public boolean existsByCorreo(String correo) {
+        BloomFilter filtro = correos;
+        if (filtro != null && !filtro.mightContain(correo)) {
+            return false;
+        }
+        return usuarioRepository.existsByCorreo(correo);
+    }
+
+    /**
+     * Registra un usuario nuevo; se llama antes del commit, un rollback solo deja un falso positivo
+     */
+    public void add(String nombreUsuario, String correo) {
+        synchronized (cambioDeFiltro) {
+            altasRecientes.add(new String[]{nombreUsuario, correo});
+            poner(nombresUsuario, correos, nombreUsuario, correo);
+        }
+    }
+
+    /**
+     * Traduce la violación de unique de una alta concurrente (de otra instancia, o que el filtro
+     * aún no veía) al mismo conflicto "ya está en uso" que devuelve la verificación previa
+     */
+    public static BadRequestException conflictoDeAlta(DataIntegrityViolationException e) {
+        String detalle = String.valueOf(e.getMostSpecificCause().getMessage());
+        if (detalle.contains("correo")) {
+            return new BadRequestException("Error: El email ya está en uso!");
+        }
+        return new BadRequestException("Error: El nombre de usuario ya está en uso!");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.membershipIndex.rebuildMs:600000}", initialDelayString = "${app.membershipIndex.rebuildMs:600000}")
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        Queue<String[]> anteriores;
+        synchronized (cambioDeFiltro) {
+            anteriores = altasRecientes;
+            altasRecientes = new ArrayDeque<>();
+        }
+
+        List<String> nombres = usuarioRepository.findAllNombresUsuario();
+        List<String> emails = usuarioRepository.findAllCorreos();
+
+        BloomFilter nuevosNombres = new BloomFilter(Math.max(expectedInsertions, nombres.size() * 2), 0.01);
+        BloomFilter nuevosCorreos = new BloomFilter(Math.max(expectedInsertions, emails.size() * 2), 0.01);
+        nombres.forEach(nuevosNombres::put);
+        emails.forEach(nuevosCorreos::put);
+
+        synchronized (cambioDeFiltro) {
+            for (String[] alta : anteriores) {
+                poner(nuevosNombres, nuevosCorreos, alta[0], alta[1]);
+            }
+            for (String[] alta : altasRecientes) {
+                poner(nuevosNombres, nuevosCorreos, alta[0], alta[1]);
+            }
+            this.nombresUsuario = nuevosNombres;
+            this.correos = nuevosCorreos;
+        }
+        log.debug("Índice de usuarios reconstruido: {} nombres, {} correos", nombres.size(), emails.size());
+    }
+
+    private static void poner(BloomFilter filtroNombres, BloomFilter filtroCorreos, String nombreUsuario, String correo) {
+        if (filtroNombres != null && nombreUsuario != null) {
+            filtroNombres.put(nombreUsuario);
+        }
+        if (filtroCorreos != null && correo != null) {
+            filtroCorreos.put(correo);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.gomitas.enums;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Transiciones permitidas entre estados de pedido y lectura de la etiqueta
+ */
+class EstadoPedidoTest {
+
+    @Test
+    void losPendientesPuedenDespacharseOCancelarse() {
+        for (EstadoPedido pendiente : new EstadoPedido[]{EstadoPedido.PENDIENTE, EstadoPedido.PENDIENTE_POR_STOCK}) {
+            assertThat(pendiente.puedeCambiarA(EstadoPedido.DESPACHADO)).isTrue();
+            assertThat(pendiente.puedeCambiarA(EstadoPedido.CANCELADO)).isTrue();
+            assertThat(pendiente.puedeCambiarA(EstadoPedido.ENTREGADO)).isFalse();
+            assertThat(pendiente.puedeCambiarA(pendiente)).isFalse();
+        }
+        assertThat(EstadoPedido.PENDIENTE.puedeCambiarA(EstadoPedido.PENDIENTE_POR_STOCK)).isTrue();
+        assertThat(EstadoPedido.PENDIENTE_POR_STOCK.puedeCambiarA(EstadoPedido.PENDIENTE)).isTrue();
+    }
+
+    @Test
+    void unDespachadoSoloPuedeEntregarse() {
+        for (EstadoPedido destino : EstadoPedido.values()) {
+            assertThat(EstadoPedido.DESPACHADO.puedeCambiarA(destino)).isEqualTo(destino == EstadoPedido.ENTREGADO);
+        }
+    }
+
+    @Test
+    void losEstadosFinalesNoCambian() {
+        for (EstadoPedido destino : EstadoPedido.values()) {
+            assertThat(EstadoPedido.ENTREGADO.puedeCambiarA(destino)).isFalse();
+            assertThat(EstadoPedido.CANCELADO.puedeCambiarA(destino)).isFalse();
+        }
+    }
+
+    @Test
+    void origenesDeDespachadoSonLosPendientes() {
+        assertThat(EstadoPedido.origenesDe(EstadoPedido.DESPACHADO))
+                .containsExactlyInAnyOrder(EstadoPedido.PENDIENTE, EstadoPedido.PENDIENTE_POR_STOCK);
+        assertThat(EstadoPedido.origenesDe(EstadoPedido.ENTREGADO)).containsExactly(EstadoPedido.DESPACHADO);
+    }
+
+    @Test
+    void desdeAceptaEtiquetaONombreSinDistinguirMayusculas() {
+        assertThat(EstadoPedido.desde(" pendiente por stock ")).contains(EstadoPedido.PENDIENTE_POR_STOCK);
+        assertThat(EstadoPedido.desde("PENDIENTE_POR_STOCK")).contains(EstadoPedido.PENDIENTE_POR_STOCK);
+        assertThat(EstadoPedido.desde("Despachado")).contains(EstadoPedido.DESPACHADO);
+        assertThat(EstadoPedido.desde("enviado")).isEmpty();
+        assertThat(EstadoPedido.desde(null)).isEmpty();
+    }
+}
@@ -0,0 +1,133 @@
+package com.gomitas.repository;
+
+import com.gomitas.entity.Alerta;
+import com.gomitas.entity.MovimientoInventario;
+import com.gomitas.entity.Producto;
+import com.gomitas.entity.VentasHistoricas;
+import com.gomitas.enums.PrioridadAlerta;
+import com.gomitas.enums.TipoAlerta;
+import com.gomitas.enums.TipoMovimientoInventario;
+import jakarta.persistence.EntityManager;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica que las tablas de mucho volumen se insertan en batches: la cantidad de sentencias
+ * preparadas depende de los lotes (batch_size y asignación de ids de 50), no de las filas.
+ */
+@SpringBootTest(properties = {
+        "app.jpa.batchSize=50",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.gomitas.repository.InsercionesEnLoteTest$ContadorSentencias"
+})
+@Transactional
+class InsercionesEnLoteTest {
+
+    private static final int FILAS = 120;
+    // ceil(120 / 50): lotes de INSERT y bloques de ids por tabla
+    private static final int LOTES = 3;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private AlertaRepository alertaRepository;
+
+    @Autowired
+    private VentasHistoricasRepository ventasHistoricasRepository;
+
+    @Autowired
+    private MovimientoInventarioRepository movimientoInventarioRepository;
+
+    @AfterEach
+    void detenerConteo() {
+        ContadorSentencias.detener();
+    }
+
+    @Test
+    void insertaFilasIntercaladasDeVariasTablasEnBatches() {
+        Producto producto = Producto.builder()
+                .nombre("Producto de prueba batch")
+                .precioUnitario(BigDecimal.TEN)
+                .stockMinimo(0)
+                .estado(true)
+                .build();
+        entityManager.persist(producto);
+        entityManager.flush();
+
+        ContadorSentencias.iniciar();
+        for (int i = 0; i < FILAS; i++) {
+            alertaRepository.save(Alerta.builder()
+                    .tipo(TipoAlerta.STOCK_BAJO)
+                    .mensaje("Alerta " + i)
+                    .prioridad(PrioridadAlerta.BAJA)
+                    .leida(false)
+                    .build());
+            ventasHistoricasRepository.save(VentasHistoricas.builder()
+                    .producto(producto)
+                    .fechaVenta(LocalDate.now())
+                    .cantidadVendida(1)
+                    .precioVenta(BigDecimal.TEN)
+                    .build());
+            movimientoInventarioRepository.save(MovimientoInventario.builder()
+                    .producto(producto)
+                    .tipoMovimiento(TipoMovimientoInventario.ENTRADA)
+                    .cantidad(1)
+                    .build());
+        }
+        entityManager.flush();
+
+        // Por tabla: LOTES sentencias INSERT y hasta LOTES + 1 llamadas a la secuencia (antes: 3 * 120 INSERT)
+        assertThat(ContadorSentencias.total()).isLessThanOrEqualTo(3 * (2 * LOTES + 1));
+        assertThat(ContadorSentencias.inserts()).isLessThanOrEqualTo(3 * LOTES);
+    }
+
+    /**
+     * Cuenta las sentencias que prepara Hibernate en el hilo del test; los jobs programados
+     * que corren en paralelo no afectan el conteo
+     */
+    public static class ContadorSentencias implements StatementInspector {
+
+        private static volatile Thread hilo;
+        private static final AtomicInteger total = new AtomicInteger();
+        private static final AtomicInteger inserts = new AtomicInteger();
+
+        static void iniciar() {
+            total.set(0);
+            inserts.set(0);
+            hilo = Thread.currentThread();
+        }
+
+        static void detener() {
+            hilo = null;
+        }
+
+        static int total() {
+            return total.get();
+        }
+
+        static int inserts() {
+            return inserts.get();
+        }
+
+        @Override
+        public String inspect(String sql) {
+            if (Thread.currentThread() == hilo) {
+                total.incrementAndGet();
+                if (sql.regionMatches(true, 0, "insert", 0, 6)) {
+                    inserts.incrementAndGet();
+                }
+            }
+            return sql;
+        }
+    }
+}
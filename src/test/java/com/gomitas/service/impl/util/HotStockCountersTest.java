@@ -0,0 +1,151 @@
+package com.gomitas.service.impl.util;
+
+import com.gomitas.entity.InventarioProducto;
+import com.gomitas.entity.Producto;
+import com.gomitas.repository.InventarioProductoRepository;
+import com.gomitas.repository.MovimientoInventarioRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Empaquetado, condiciones de los compareAndSet y deshacer ante rollback de los saldos hot,
+ * con los repositorios simulados
+ */
+class HotStockCountersTest {
+
+    private static final long GOMITAS = 1L;
+    private static final long GALLETAS = 2L;
+
+    private HotStockCounters counters;
+
+    @BeforeEach
+    void cargarSaldos() {
+        InventarioProductoRepository inventarioRepository = mock(InventarioProductoRepository.class);
+        MovimientoInventarioRepository movimientoRepository = mock(MovimientoInventarioRepository.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(inventarioRepository.findByProductoIdIn(anyCollection())).thenReturn(List.of(
+                inventario(GOMITAS, 10, 4),
+                inventario(GALLETAS, 2_000_000_000, 1_500_000_000)));
+
+        counters = new HotStockCounters(inventarioRepository, movimientoRepository, new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(counters, "enabled", true);
+        ReflectionTestUtils.setField(counters, "productoIds", Set.of(GOMITAS, GALLETAS));
+        ReflectionTestUtils.setField(counters, "flushBatchSize", 1000);
+        counters.cargar();
+    }
+
+    @AfterEach
+    void limpiarSincronizacion() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void disponibleYReservadoSeEmpaquetanSinPisarse() {
+        assertThat(counters.esHot(GOMITAS)).isTrue();
+        assertThat(counters.esHot(99L)).isFalse();
+        assertThat(counters.saldo(99L)).isEmpty();
+
+        assertThat(counters.saldo(GOMITAS)).contains(new HotStockCounters.Saldo(10, 4));
+        // Valores cerca del límite de int en las dos mitades del long
+        assertThat(counters.saldo(GALLETAS)).contains(new HotStockCounters.Saldo(2_000_000_000, 1_500_000_000));
+
+        // Un disponible negativo (ajuste por merma) no se propaga a la mitad de lo reservado
+        TransactionSynchronizationManager.initSynchronization();
+        counters.ajustar(GOMITAS, -3);
+        assertThat(counters.saldo(GOMITAS)).contains(new HotStockCounters.Saldo(-3, 4));
+    }
+
+    @Test
+    void reservarSoloApartaLoDisponibleParaPrometer() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        assertThat(counters.reservar(GOMITAS, 7)).isFalse();
+        assertThat(counters.saldo(GOMITAS)).contains(new HotStockCounters.Saldo(10, 4));
+
+        assertThat(counters.reservar(GOMITAS, 6)).isTrue();
+        assertThat(counters.saldo(GOMITAS)).contains(new HotStockCounters.Saldo(10, 10));
+        assertThat(counters.reservar(GOMITAS, 1)).isFalse();
+    }
+
+    @Test
+    void consumirNoTocaReservasAjenas() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Pide más reservado del que hay apartado
+        assertThat(counters.consumir(GOMITAS, 5, 5)).isEmpty();
+        // 10 - 4 + 2 = 8 alcanzan sin tocar las otras 2 unidades reservadas
+        assertThat(counters.consumir(GOMITAS, 9, 2)).isEmpty();
+        assertThat(counters.saldo(GOMITAS)).contains(new HotStockCounters.Saldo(10, 4));
+
+        // Devuelve el disponible que dejó su propio compareAndSet
+        assertThat(counters.consumir(GOMITAS, 8, 2)).hasValue(2);
+        assertThat(counters.saldo(GOMITAS)).contains(new HotStockCounters.Saldo(2, 2));
+    }
+
+    @Test
+    void liberarNoDejaReservadoNegativo() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        counters.liberar(GOMITAS, 10);
+        assertThat(counters.saldo(GOMITAS)).contains(new HotStockCounters.Saldo(10, 0));
+    }
+
+    @Test
+    void unRollbackDeshaceLosCambiosEnMemoria() {
+        TransactionSynchronizationManager.initSynchronization();
+        assertThat(counters.reservar(GOMITAS, 3)).isTrue();
+        assertThat(counters.consumir(GOMITAS, 5, 3)).hasValue(5);
+        counters.liberar(GOMITAS, 10);
+        assertThat(counters.incrementar(GOMITAS, 20)).isEqualTo(25);
+        assertThat(counters.ajustar(GOMITAS, 7)).isEqualTo(25);
+        assertThat(counters.saldo(GOMITAS)).contains(new HotStockCounters.Saldo(7, 0));
+
+        completar(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(counters.saldo(GOMITAS)).contains(new HotStockCounters.Saldo(10, 4));
+    }
+
+    @Test
+    void unCommitConservaLosCambios() {
+        TransactionSynchronizationManager.initSynchronization();
+        assertThat(counters.reservar(GOMITAS, 3)).isTrue();
+        counters.incrementar(GOMITAS, 5);
+
+        completar(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(counters.saldo(GOMITAS)).contains(new HotStockCounters.Saldo(15, 7));
+    }
+
+    private static void completar(int estado) {
+        List<TransactionSynchronization> sincronizaciones = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        sincronizaciones.forEach(sincronizacion -> sincronizacion.afterCompletion(estado));
+    }
+
+    private static InventarioProducto inventario(long productoId, int disponible, int reservada) {
+        return InventarioProducto.builder()
+                .producto(Producto.builder().productoId(productoId).build())
+                .cantidadDisponible(disponible)
+                .cantidadReservada(reservada)
+                .build();
+    }
+}
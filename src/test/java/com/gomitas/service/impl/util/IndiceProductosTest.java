@@ -0,0 +1,113 @@
+package com.gomitas.service.impl.util;
+
+import com.gomitas.dto.ProductoDtos;
+import com.gomitas.enums.OrdenProducto;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Búsqueda por prefijo, normalización y cursor por valor del índice del catálogo, sin base de datos
+ */
+class IndiceProductosTest {
+
+    private static final List<ProductoDtos.ProductoResponseDto> CATALOGO = List.of(
+            producto(1, "Gomitas de Maracuyá", "Sabor tropical", "3.50"),
+            producto(2, "Gomitas de Piña", "Con azúcar", "2.00"),
+            producto(3, "Galletas de Avena", "Para perros pequeños", "5.00"),
+            producto(4, "Gominolas Ácidas", "Sabor limón", "2.00"),
+            producto(5, "Snack de Ñame", "Horneado", "4.25"));
+
+    @Test
+    void unPrefijoDevuelveTodosLosTerminosDelRango() {
+        IndiceProductos indice = new IndiceProductos(CATALOGO);
+
+        assertThat(ids(indice.buscar(consulta("gom", OrdenProducto.NUEVOS, null, 10)))).containsExactly(4L, 2L, 1L);
+        assertThat(ids(indice.buscar(consulta("gomi", OrdenProducto.NUEVOS, null, 10)))).containsExactly(4L, 2L, 1L);
+        assertThat(ids(indice.buscar(consulta("gomit", OrdenProducto.NUEVOS, null, 10)))).containsExactly(2L, 1L);
+        assertThat(indice.buscar(consulta("gomz", OrdenProducto.NUEVOS, null, 10)).total()).isZero();
+    }
+
+    @Test
+    void laBusquedaIgnoraTildesMayusculasYEnie() {
+        IndiceProductos indice = new IndiceProductos(CATALOGO);
+
+        assertThat(ids(indice.buscar(consulta("MARACUYA", OrdenProducto.NUEVOS, null, 10)))).containsExactly(1L);
+        assertThat(ids(indice.buscar(consulta("pina", OrdenProducto.NUEVOS, null, 10)))).containsExactly(2L);
+        assertThat(ids(indice.buscar(consulta("piña", OrdenProducto.NUEVOS, null, 10)))).containsExactly(2L);
+        assertThat(ids(indice.buscar(consulta("ñame", OrdenProducto.NUEVOS, null, 10)))).containsExactly(5L);
+        assertThat(ids(indice.buscar(consulta("acidas", OrdenProducto.NUEVOS, null, 10)))).containsExactly(4L);
+    }
+
+    @Test
+    void variasPalabrasSeCombinanConAnd() {
+        IndiceProductos indice = new IndiceProductos(CATALOGO);
+
+        // "sabor" está en 1 y 4, "gomit" solo en 1 y 2
+        assertThat(ids(indice.buscar(consulta("sabor gomit", OrdenProducto.NUEVOS, null, 10)))).containsExactly(1L);
+        // Las palabras pueden venir del nombre y de la descripción
+        assertThat(ids(indice.buscar(consulta("galletas perros", OrdenProducto.NUEVOS, null, 10)))).containsExactly(3L);
+        assertThat(indice.buscar(consulta("gomitas perros", OrdenProducto.NUEVOS, null, 10)).total()).isZero();
+    }
+
+    @Test
+    void elCursorContinuaDespuesDeLaUltimaClaveConEmpates() {
+        IndiceProductos indice = new IndiceProductos(CATALOGO);
+
+        // Precios 2.00 (ids 2 y 4), 3.50, 4.25, 5.00: el empate se resuelve por productoId
+        IndiceProductos.Resultado primera = indice.buscar(consulta(null, OrdenProducto.PRECIO_ASC, null, 1));
+        assertThat(ids(primera)).containsExactly(2L);
+        assertThat(primera.hayMas()).isTrue();
+        assertThat(primera.total()).isEqualTo(5);
+
+        List<Long> recorridos = new ArrayList<>(ids(primera));
+        IndiceProductos.Clave cursor = primera.ultima();
+        while (cursor != null) {
+            IndiceProductos.Resultado pagina = indice.buscar(consulta(null, OrdenProducto.PRECIO_ASC, cursor, 2));
+            recorridos.addAll(ids(pagina));
+            cursor = pagina.ultima();
+        }
+        assertThat(recorridos).containsExactly(2L, 4L, 1L, 5L, 3L);
+    }
+
+    @Test
+    void elCursorSobreviveAUnaReconstruccionDelIndice() {
+        IndiceProductos anterior = new IndiceProductos(CATALOGO);
+        IndiceProductos.Resultado primera = anterior.buscar(consulta(null, OrdenProducto.PRECIO_ASC, null, 2));
+        assertThat(ids(primera)).containsExactly(2L, 4L);
+
+        // Nueva versión del catálogo: se agrega un producto antes del cursor, otro después,
+        // y se quita el que seguía; el cursor guarda valores, no posiciones
+        List<ProductoDtos.ProductoResponseDto> nuevoCatalogo = new ArrayList<>(CATALOGO);
+        nuevoCatalogo.removeIf(p -> p.productoId() == 1L);
+        nuevoCatalogo.add(producto(6, "Gomitas de Mora", "", "1.00"));
+        nuevoCatalogo.add(producto(7, "Gomitas de Uva", "", "3.00"));
+        IndiceProductos nuevo = new IndiceProductos(nuevoCatalogo);
+
+        IndiceProductos.Resultado siguiente = nuevo.buscar(consulta(null, OrdenProducto.PRECIO_ASC, primera.ultima(), 10));
+        assertThat(ids(siguiente)).containsExactly(7L, 5L, 3L);
+        assertThat(siguiente.hayMas()).isFalse();
+    }
+
+    private static IndiceProductos.Consulta consulta(String texto, OrdenProducto orden, IndiceProductos.Clave despuesDe, int limite) {
+        return new IndiceProductos.Consulta(texto, null, null, orden, despuesDe, limite);
+    }
+
+    private static List<Long> ids(IndiceProductos.Resultado resultado) {
+        return resultado.productos().stream().map(ProductoDtos.ProductoResponseDto::productoId).toList();
+    }
+
+    private static ProductoDtos.ProductoResponseDto producto(long id, String nombre, String descripcion, String precio) {
+        return ProductoDtos.ProductoResponseDto.builder()
+                .productoId(id)
+                .nombre(nombre)
+                .descripcion(descripcion)
+                .precioUnitario(new BigDecimal(precio))
+                .estado(true)
+                .build();
+    }
+}